@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jgroups.JChannel;
+import org.jgroups.util.Responses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a discovery round, i.e. listing the member files of a cluster and fetching and parsing their contents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ReadAllBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int members;
+
+    /** Latency in milliseconds injected into every S3 request. */
+    @Param({"0", "5"})
+    public long latency;
+
+    @Param({"false", "true"})
+    public boolean parallelFetch;
+
+    /** Whether unchanged member files are served from the discovery cache rather than fetched again. */
+    @Param({"false", "true"})
+    public boolean discoveryCache;
+
+    private EmbeddedS3Server server;
+    private S3_PING ping;
+    private JChannel channel;
+
+    @Setup
+    public void setUp() throws Exception {
+        S3_PINGTestSupport.setUpCredentials();
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+        ping = S3_PINGTestSupport.createProtocol(server);
+        ping.parallel_fetch = parallelFetch;
+        ping.discovery_cache_max_entries = discoveryCache ? members * 2 : 0;
+        channel = S3_PINGTestSupport.connect(ping, S3_PINGBenchmarkSupport.CLUSTER);
+        S3_PINGBenchmarkSupport.populate(server, ping, members);
+        server.setLatency(latency, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.setLatency(0, TimeUnit.MILLISECONDS);
+        channel.close();
+        server.close();
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @Benchmark
+    public int readAll() {
+        final Responses responses = new Responses(false);
+        ping.readAll(null, S3_PINGBenchmarkSupport.CLUSTER, responses);
+        return responses.size();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jgroups.protocols.PingData;
+import org.jgroups.stack.IpAddress;
+import org.jgroups.util.UUID;
+
+/**
+ * Creates the fixtures shared by the benchmarks, on top of the {@link S3_PINGTestSupport} of the tests.
+ */
+final class S3_PINGBenchmarkSupport {
+    static final String CLUSTER = "benchmark";
+
+    private S3_PINGBenchmarkSupport() {
+    }
+
+    /**
+     * Stores the member files of the given number of synthetic members directly in the embedded server.
+     */
+    static void populate(final EmbeddedS3Server server, final S3_PING ping, final int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            S3_PINGTestSupport.putMember(server, ping, CLUSTER, "member-" + i);
+        }
+    }
+
+    static List<PingData> createMembers(final int count) throws Exception {
+        final List<PingData> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(new PingData(UUID.randomUUID(), true, "member-" + i, new IpAddress("127.0.0.1", 7800 + i % 1000)).coord(i == 0));
+        }
+        return list;
+    }
+}
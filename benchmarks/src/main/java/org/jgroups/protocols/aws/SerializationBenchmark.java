@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jgroups.protocols.PingData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures serializing and parsing member lists in the supported member file formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SerializationBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int members;
+
+    @Param({"text", "binary", "compressed"})
+    public String format;
+
+    private S3_PING ping;
+    private List<PingData> list;
+    private byte[] data;
+
+    @Setup
+    public void setUp() throws Exception {
+        ping = new S3_PING();
+        ping.binary_format = !format.equals("text");
+        ping.compress = format.equals("compressed");
+        list = S3_PINGBenchmarkSupport.createMembers(members);
+        data = ping.serialize(list);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return ping.serialize(list);
+    }
+
+    @Benchmark
+    public List<PingData> parse() {
+        return ping.parse(new ByteArrayInputStream(data));
+    }
+}
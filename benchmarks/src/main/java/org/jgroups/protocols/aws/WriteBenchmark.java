@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.PingData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing the member list of the local member, i.e. its serialization and upload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class WriteBenchmark {
+
+    /** Number of members in the written member list. */
+    @Param({"10", "100", "1000"})
+    public int members;
+
+    /** Latency in milliseconds injected into every S3 request. */
+    @Param({"0", "5"})
+    public long latency;
+
+    @Param({"false", "true"})
+    public boolean binaryFormat;
+
+    private EmbeddedS3Server server;
+    private S3_PING ping;
+    private JChannel channel;
+    private List<PingData> list;
+
+    @Setup
+    public void setUp() throws Exception {
+        S3_PINGTestSupport.setUpCredentials();
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+        ping = S3_PINGTestSupport.createProtocol(server);
+        ping.binary_format = binaryFormat;
+        // n.b. upload every write, rather than skipping the unchanged content
+        ping.unchanged_write_refresh_interval = 0;
+        channel = S3_PINGTestSupport.connect(ping, S3_PINGBenchmarkSupport.CLUSTER);
+        list = S3_PINGBenchmarkSupport.createMembers(members);
+        server.setLatency(latency, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.setLatency(0, TimeUnit.MILLISECONDS);
+        channel.close();
+        server.close();
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @Benchmark
+    public void write() {
+        ping.write(list, S3_PINGBenchmarkSupport.CLUSTER);
+    }
+}
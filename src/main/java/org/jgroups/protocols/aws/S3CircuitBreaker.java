@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jgroups.logging.Log;
+import software.amazon.awssdk.core.exception.AbortedException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+/**
+ * Circuit breaker guarding the AWS S3 clients of {@link S3_PING}. After a number of consecutive calls failed because
+ * AWS S3 was throttling, unavailable or unreachable, the circuit opens and further calls fail immediately, so that a
+ * struggling bucket is not hammered by every member. Once a backoff elapses, a single probe call is let through; if it
+ * succeeds the circuit closes, otherwise it opens again with the backoff doubled up to a maximum. A probe call which
+ * is interrupted or cancelled, e.g. as a hedged request lost, says nothing about AWS S3, so the circuit returns to the
+ * open state and the next call probes again; a probe call not completing within the maximum backoff is replaced. The
+ * backoff is randomized so that members recover at different times.
+ * <p>
+ * n.b. the breaker counts calls, each of which may consist of several attempts made by the retry strategy
+ */
+final class S3CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    enum Permit {
+        GRANTED, PROBE, REJECTED
+    }
+
+    private static final ExecutionAttribute<Permit> PERMIT = new ExecutionAttribute<>("S3_PING.circuitBreakerPermit");
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_INTERNAL_ERROR = 500;
+
+    private final Log log;
+    private final int failureThreshold;
+    private final long minBackoff;
+    private final long maxBackoff;
+    private final LongAdder rejected = new LongAdder();
+
+    // n.b. guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long backoff;
+    private long openUntil;
+    private boolean probing;
+    private long probeStarted;
+
+    /**
+     * @param failureThreshold number of consecutive failed calls opening the circuit
+     * @param minBackoff initial backoff in milliseconds
+     * @param maxBackoff maximum backoff in milliseconds
+     */
+    S3CircuitBreaker(final Log log, final int failureThreshold, final long minBackoff, final long maxBackoff) {
+        this.log = log;
+        this.failureThreshold = failureThreshold;
+        this.minBackoff = TimeUnit.MILLISECONDS.toNanos(minBackoff);
+        this.maxBackoff = TimeUnit.MILLISECONDS.toNanos(Math.max(minBackoff, maxBackoff));
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return true if calls are currently rejected, i.e. the circuit is open and its backoff has not elapsed yet
+     */
+    synchronized boolean isOpen() {
+        return state == State.OPEN && System.nanoTime() - openUntil < 0;
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    ExecutionInterceptor interceptor() {
+        return new Interceptor();
+    }
+
+    synchronized Permit acquire() {
+        final long now = System.nanoTime();
+        switch (state) {
+            case OPEN:
+                if (now - openUntil < 0) {
+                    rejected.increment();
+                    return Permit.REJECTED;
+                }
+                state = State.HALF_OPEN;
+                return probe(now);
+            case HALF_OPEN:
+                // n.b. only a single probe call at a time, unless the probe call never completed
+                if (probing && now - probeStarted < maxBackoff) {
+                    rejected.increment();
+                    return Permit.REJECTED;
+                }
+                return probe(now);
+            default:
+                return Permit.GRANTED;
+        }
+    }
+
+    private Permit probe(final long now) {
+        probing = true;
+        probeStarted = now;
+        return Permit.PROBE;
+    }
+
+    synchronized void onSuccess(final Permit permit) {
+        consecutiveFailures = 0;
+        if (permit == Permit.PROBE && state == State.HALF_OPEN) {
+            probing = false;
+            state = State.CLOSED;
+            backoff = 0;
+            log.info("AWS S3 is available again, resuming requests.");
+        }
+    }
+
+    synchronized void onFailure(final Permit permit) {
+        if (permit == Permit.PROBE) {
+            if (state == State.HALF_OPEN) {
+                probing = false;
+                open();
+            }
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Frees the probe slot of an interrupted or cancelled probe call, so that the next call probes again; other
+     * aborted calls are ignored.
+     */
+    synchronized void onAbort(final Permit permit) {
+        if (permit == Permit.PROBE && state == State.HALF_OPEN) {
+            probing = false;
+            // n.b. the backoff already elapsed, so the next call is let through as a probe
+            state = State.OPEN;
+        }
+    }
+
+    private void open() {
+        backoff = backoff == 0 ? minBackoff : Math.min(backoff * 2, maxBackoff);
+        // n.b. wait between half and all of the backoff
+        final long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        openUntil = System.nanoTime() + delay;
+        state = State.OPEN;
+        consecutiveFailures = 0;
+        log.warn("AWS S3 is throttling or unavailable, suspending requests for %d ms.", TimeUnit.NANOSECONDS.toMillis(delay));
+    }
+
+    /**
+     * @return true if the failure indicates that AWS S3 is throttling, unavailable or unreachable, rather than e.g. a
+     * missing object
+     */
+    static boolean isUnavailable(final Throwable throwable) {
+        if (throwable instanceof SdkServiceException) {
+            final SdkServiceException e = (SdkServiceException) throwable;
+            return e.isThrottlingException() || e.statusCode() == HTTP_TOO_MANY_REQUESTS || e.statusCode() >= HTTP_INTERNAL_ERROR;
+        }
+        return !isAborted(throwable);
+    }
+
+    /**
+     * @return true if the call was interrupted or cancelled, which says nothing about AWS S3
+     */
+    static boolean isAborted(final Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AbortedException || cause instanceof InterruptedException || cause instanceof CancellationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class Interceptor implements ExecutionInterceptor {
+
+        @Override
+        public void beforeExecution(final Context.BeforeExecution context, final ExecutionAttributes executionAttributes) {
+            final Permit permit = acquire();
+            executionAttributes.putAttribute(PERMIT, permit);
+            if (permit == Permit.REJECTED) {
+                throw SdkClientException.create("Request rejected as AWS S3 is throttling or unavailable, see the 'circuit_breaker_failure_threshold' property.");
+            }
+        }
+
+        @Override
+        public void afterExecution(final Context.AfterExecution context, final ExecutionAttributes executionAttributes) {
+            onSuccess(executionAttributes.getAttribute(PERMIT));
+        }
+
+        @Override
+        public void onExecutionFailure(final Context.FailedExecution context, final ExecutionAttributes executionAttributes) {
+            final Permit permit = executionAttributes.getAttribute(PERMIT);
+            if (permit == null || permit == Permit.REJECTED) {
+                return;
+            }
+            if (isAborted(context.exception())) {
+                onAbort(permit);
+            } else if (isUnavailable(context.exception())) {
+                onFailure(permit);
+            } else {
+                // n.b. AWS S3 responded, e.g. the object does not exist
+                onSuccess(permit);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Creates the HTTP client builders used by {@link S3_PING} and keeps track of AWS S3 clients, and the circuit breaker,
+ * shared between protocol instances with the same configuration. Metrics are not shared, they are kept per protocol
+ * instance.
+ * <p>
+ * n.b. the URL connection and CRT based HTTP clients are optional dependencies, so their classes are only referenced
+ * from the methods creating them.
+ */
+final class S3Clients {
+    static final String APACHE = "apache";
+    static final String URL_CONNECTION = "url-connection";
+    static final String CRT = "crt";
+
+    // n.b. guarded by itself
+    private static final Map<Object, SharedClient> SHARED_CLIENTS = new HashMap<>();
+
+    private S3Clients() {
+    }
+
+    static boolean isSupported(String httpClient) {
+        return APACHE.equals(httpClient) || URL_CONNECTION.equals(httpClient) || CRT.equals(httpClient);
+    }
+
+    static SdkHttpClient.Builder<?> httpClientBuilder(String httpClient, int maxConnections, Duration connectionTimeout, Duration socketTimeout) {
+        try {
+            switch (httpClient) {
+                case URL_CONNECTION:
+                    return UrlConnectionHttpClient.builder()
+                            .connectionTimeout(connectionTimeout)
+                            .socketTimeout(socketTimeout);
+                case CRT:
+                    return AwsCrtHttpClient.builder()
+                            .maxConcurrency(maxConnections)
+                            .connectionTimeout(connectionTimeout);
+                default:
+                    return ApacheHttpClient.builder()
+                            .maxConnections(maxConnections)
+                            .connectionTimeout(connectionTimeout)
+                            .socketTimeout(socketTimeout);
+            }
+        } catch (NoClassDefFoundError e) {
+            throw missingHttpClient(httpClient, e);
+        }
+    }
+
+    /**
+     * The asynchronous client uses the CRT based HTTP client if configured, and the Netty based client otherwise, as
+     * there is no asynchronous counterpart of the other HTTP clients.
+     */
+    static SdkAsyncHttpClient.Builder<?> asyncHttpClientBuilder(String httpClient, int maxConnections, Duration connectionTimeout, Duration socketTimeout) {
+        try {
+            if (CRT.equals(httpClient)) {
+                return AwsCrtAsyncHttpClient.builder()
+                        .maxConcurrency(maxConnections)
+                        .connectionTimeout(connectionTimeout);
+            }
+            return NettyNioAsyncHttpClient.builder()
+                    .maxConcurrency(maxConnections)
+                    .connectionTimeout(connectionTimeout)
+                    .readTimeout(socketTimeout)
+                    .writeTimeout(socketTimeout);
+        } catch (NoClassDefFoundError e) {
+            throw missingHttpClient(httpClient, e);
+        }
+    }
+
+    private static IllegalStateException missingHttpClient(String httpClient, NoClassDefFoundError e) {
+        return new IllegalStateException(String.format("The '%s' HTTP client is not available on the classpath, see the documentation for the required dependencies.", httpClient), e);
+    }
+
+    /**
+     * Returns the client, or other shared object, registered under the given key, creating it if there is none yet, and
+     * increments its reference count.
+     */
+    @SuppressWarnings("unchecked")
+    static <C> C acquire(Object key, Supplier<C> factory) {
+        synchronized (SHARED_CLIENTS) {
+            SharedClient shared = SHARED_CLIENTS.get(key);
+            if (shared == null) {
+                shared = new SharedClient(factory.get());
+                SHARED_CLIENTS.put(key, shared);
+            }
+            shared.references++;
+            return (C) shared.client;
+        }
+    }
+
+    /**
+     * Decrements the reference count of the client registered under the given key and closes it once it is no longer
+     * referenced. Other shared objects are just dropped.
+     */
+    static void release(Object key) {
+        synchronized (SHARED_CLIENTS) {
+            SharedClient shared = SHARED_CLIENTS.get(key);
+            if (shared != null && --shared.references == 0) {
+                SHARED_CLIENTS.remove(key);
+                if (shared.client instanceof SdkAutoCloseable) {
+                    ((SdkAutoCloseable) shared.client).close();
+                }
+            }
+        }
+    }
+
+    private static final class SharedClient {
+        private final Object client;
+        private int references;
+
+        private SharedClient(Object client) {
+            this.client = client;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jgroups.protocols.aws;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.jgroups.protocols.PingData;
+
+/**
+ * A JVM-wide cache of the memberships read by {@link S3_PING} instances, keyed by the bucket, cluster prefix and the
+ * configuration of the member file layout.
+ * Concurrent reads of the same cluster are de-duplicated, so that only one instance lists and fetches its member files
+ * while the others wait for its result, which is then served to subsequent reads within a short time to live.
+ * <p>
+ * Reads are coordinated by striped locks held only to look up or register a read, so that reads of unrelated
+ * clusters do not contend. Failed reads are not cached, and expired reads are evicted whenever a read is registered.
+ */
+final class S3DiscoveryCache {
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final ConcurrentMap<String, Read> reads = new ConcurrentHashMap<>();
+
+    S3DiscoveryCache() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the membership read within the time to live or still being read by another instance, or else reads it
+     * on the calling thread using the given loader.
+     *
+     * @param ttl     the time to live in nanoseconds of a completed read
+     * @param timeout the time in nanoseconds to wait for a concurrent read, after which the membership is read on the
+     *                calling thread instead
+     * @param loader  reads the membership, returning null if the read failed
+     * @return the membership, which is null if the read failed, and whether it was read by an earlier or concurrent call
+     */
+    CachedRead get(final String key, final long ttl, final long timeout, final Supplier<List<PingData>> loader) throws InterruptedException {
+        final ReentrantLock lock = locks[Math.floorMod(key.hashCode(), STRIPES)];
+        final long now = System.nanoTime();
+        final Read current;
+        final Read read;
+        lock.lock();
+        try {
+            current = reads.get(key);
+            if (current != null && (!current.result.isDone() || now - current.expires < 0)) {
+                read = null;
+            } else {
+                read = new Read();
+                reads.put(key, read);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (read == null) {
+            try {
+                return new CachedRead(current.result.get(timeout, TimeUnit.NANOSECONDS), true);
+            } catch (final TimeoutException e) {
+                // n.b. the concurrent read is left registered, subsequent reads wait for it as well
+                return new CachedRead(loader.get(), false);
+            } catch (final ExecutionException e) {
+                // n.b. not expected, as the result never completes exceptionally
+                return new CachedRead(null, true);
+            }
+        }
+
+        evictExpired(now);
+        List<PingData> membership = null;
+        try {
+            membership = loader.get();
+        } finally {
+            read.expires = System.nanoTime() + ttl;
+            if (membership == null) {
+                reads.remove(key, read);
+            }
+            read.result.complete(membership);
+        }
+        return new CachedRead(membership, false);
+    }
+
+    /**
+     * Discards the cached memberships of the keys starting with the given prefix, e.g. after a member file of the
+     * cluster was written by this JVM.
+     */
+    void invalidate(final String prefix) {
+        reads.entrySet().removeIf(entry -> entry.getKey().startsWith(prefix) && entry.getValue().result.isDone());
+    }
+
+    /**
+     * @return the number of reads in progress or cached
+     */
+    int size() {
+        return reads.size();
+    }
+
+    private void evictExpired(final long now) {
+        reads.values().removeIf(read -> read.result.isDone() && now - read.expires >= 0);
+    }
+
+    /**
+     * The result of a read and whether it was shared with an earlier or concurrent call rather than loaded.
+     */
+    record CachedRead(List<PingData> membership, boolean shared) {
+    }
+
+    private static final class Read {
+        private final CompletableFuture<List<PingData>> result = new CompletableFuture<>();
+        private volatile long expires;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jgroups.logging.Log;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+/**
+ * Counters and latency histograms of the AWS S3 operations issued by {@link S3_PING}, recorded by an
+ * {@link ExecutionInterceptor} registered with the AWS S3 clients, and of its discovery rounds. Requests carrying the
+ * {@link #requestOverride() override configuration} of a protocol instance are recorded by its metrics, so that
+ * instances sharing the clients keep their own metrics.
+ * <p>
+ * n.b. the latency of an operation spans all of its attempts, i.e. includes retries
+ */
+final class S3Metrics {
+
+    enum Operation {
+        LIST, GET, PUT, DELETE;
+
+        static Operation of(final SdkRequest request) {
+            if (request instanceof ListObjectsV2Request) return LIST;
+            if (request instanceof GetObjectRequest) return GET;
+            if (request instanceof PutObjectRequest) return PUT;
+            if (request instanceof DeleteObjectRequest || request instanceof DeleteObjectsRequest) return DELETE;
+            // n.b. bucket operations are not tracked
+            return null;
+        }
+    }
+
+    private static final ExecutionAttribute<Long> START_TIME = new ExecutionAttribute<>("S3_PING.startTime");
+    private static final ExecutionAttribute<S3Metrics> METRICS = new ExecutionAttribute<>("S3_PING.metrics");
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+
+    private final OperationMetrics[] operations = new OperationMetrics[Operation.values().length];
+    private final LongAdder objectsListed = new LongAdder();
+    private final LatencyHistogram discoveryRounds = new LatencyHistogram();
+
+    S3Metrics() {
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new OperationMetrics();
+        }
+    }
+
+    OperationMetrics get(final Operation operation) {
+        return operations[operation.ordinal()];
+    }
+
+    long getObjectsListed() {
+        return objectsListed.sum();
+    }
+
+    LatencyHistogram getDiscoveryRounds() {
+        return discoveryRounds;
+    }
+
+    void recordDiscoveryRound(final long nanos) {
+        discoveryRounds.record(nanos);
+    }
+
+    /**
+     * @return the override configuration to apply to the requests recorded by these metrics
+     */
+    AwsRequestOverrideConfiguration requestOverride() {
+        return AwsRequestOverrideConfiguration.builder().putExecutionAttribute(METRICS, this).build();
+    }
+
+    void reset() {
+        for (final OperationMetrics operation : operations) {
+            operation.reset();
+        }
+        objectsListed.reset();
+        discoveryRounds.reset();
+    }
+
+    /**
+     * @param log log to report slow calls to
+     * @param slowCallThreshold duration in milliseconds from which a call is reported as slow, or 0 to disable
+     */
+    ExecutionInterceptor interceptor(final Log log, final long slowCallThreshold) {
+        return new Interceptor(log, TimeUnit.MILLISECONDS.toNanos(slowCallThreshold));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (final Operation operation : Operation.values()) {
+            final OperationMetrics metrics = get(operation);
+            sb.append(String.format(Locale.ROOT, "%-6s calls=%d, errors=%d, throttled=%d, bytes=%d, latency: %s%n", operation.name().toLowerCase(Locale.ROOT),
+                    metrics.getCalls(), metrics.getErrors(), metrics.getThrottled(), metrics.getBytes(), metrics.getLatency()));
+        }
+        sb.append(String.format(Locale.ROOT, "objects listed=%d, discovery rounds: %s", getObjectsListed(), discoveryRounds));
+        return sb.toString();
+    }
+
+    static final class OperationMetrics {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        long getCalls() {
+            return calls.sum();
+        }
+
+        long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * @return the number of attempts rejected with a throttling response, including attempts which were retried
+         */
+        long getThrottled() {
+            return throttled.sum();
+        }
+
+        long getBytes() {
+            return bytes.sum();
+        }
+
+        LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        private void reset() {
+            calls.reset();
+            errors.reset();
+            throttled.reset();
+            bytes.reset();
+            latency.reset();
+        }
+    }
+
+    /**
+     * Histogram with logarithmic buckets, each power of two being split into {@value #SUB_BUCKETS} linear buckets, so that
+     * percentiles are reported with a relative error of at most 12.5% using a fixed amount of memory.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        // n.b. values are recorded in microseconds
+        private final AtomicLongArray buckets = new AtomicLongArray((Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+        private final AtomicLong max = new AtomicLong();
+
+        void record(final long nanos) {
+            final long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+            buckets.incrementAndGet(index(micros));
+            max.accumulateAndGet(micros, Math::max);
+        }
+
+        long getCount() {
+            long count = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                count += buckets.get(i);
+            }
+            return count;
+        }
+
+        /**
+         * @return the maximum recorded latency in milliseconds
+         */
+        double getMax() {
+            return max.get() / 1000.0;
+        }
+
+        /**
+         * @param percentile the percentile between 0 and 100
+         * @return the upper bound in milliseconds of the bucket holding the percentile, or 0 if nothing was recorded
+         */
+        double getPercentile(final double percentile) {
+            final long[] counts = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get()) / 1000.0;
+                }
+            }
+            return getMax();
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            max.set(0);
+        }
+
+        private static int index(final long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long upperBound(final int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            final long subBucket = index % SUB_BUCKETS;
+            return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "count=%d, p50=%.3f ms, p99=%.3f ms, max=%.3f ms", getCount(), getPercentile(50), getPercentile(99), getMax());
+        }
+    }
+
+    private final class Interceptor implements ExecutionInterceptor {
+        private final Log log;
+        private final long slowCallThreshold;
+
+        private Interceptor(final Log log, final long slowCallThreshold) {
+            this.log = log;
+            this.slowCallThreshold = slowCallThreshold;
+        }
+
+        @Override
+        public void beforeExecution(final Context.BeforeExecution context, final ExecutionAttributes executionAttributes) {
+            executionAttributes.putAttribute(START_TIME, System.nanoTime());
+        }
+
+        @Override
+        public void afterTransmission(final Context.AfterTransmission context, final ExecutionAttributes executionAttributes) {
+            final int status = context.httpResponse().statusCode();
+            final Operation operation = Operation.of(context.request());
+            if (operation != null && (status == HTTP_SERVICE_UNAVAILABLE || status == HTTP_TOO_MANY_REQUESTS)) {
+                target(executionAttributes).get(operation).throttled.increment();
+            }
+        }
+
+        @Override
+        public void afterExecution(final Context.AfterExecution context, final ExecutionAttributes executionAttributes) {
+            final Operation operation = Operation.of(context.request());
+            if (operation == null) {
+                return;
+            }
+            final OperationMetrics metrics = complete(operation, context.request(), executionAttributes);
+            if (metrics == null) {
+                return;
+            }
+            switch (operation) {
+                case LIST:
+                    target(executionAttributes).objectsListed.add(((ListObjectsV2Response) context.response()).contents().size());
+                    break;
+                case GET:
+                    final Long contentLength = ((GetObjectResponse) context.response()).contentLength();
+                    if (contentLength != null) {
+                        metrics.bytes.add(contentLength);
+                    }
+                    break;
+                case PUT:
+                    metrics.bytes.add(uploadedBytes(context.httpRequest()));
+                    break;
+                default:
+            }
+        }
+
+        @Override
+        public void onExecutionFailure(final Context.FailedExecution context, final ExecutionAttributes executionAttributes) {
+            final Operation operation = Operation.of(context.request());
+            final OperationMetrics metrics = operation != null ? complete(operation, context.request(), executionAttributes) : null;
+            // n.b. a conditional get of an unchanged object fails with a 304 response, which is not an error
+            if (metrics != null && !isNotModified(context.exception())) {
+                metrics.errors.increment();
+            }
+        }
+
+        private boolean isNotModified(final Throwable exception) {
+            return exception instanceof SdkServiceException && ((SdkServiceException) exception).statusCode() == HTTP_NOT_MODIFIED;
+        }
+
+        /**
+         * @return the metrics of the protocol instance which issued the request
+         */
+        private S3Metrics target(final ExecutionAttributes executionAttributes) {
+            final S3Metrics metrics = executionAttributes.getAttribute(METRICS);
+            return metrics != null ? metrics : S3Metrics.this;
+        }
+
+        /**
+         * @return the metrics of the operation, or null if the call was rejected before it started
+         */
+        private OperationMetrics complete(final Operation operation, final SdkRequest request, final ExecutionAttributes executionAttributes) {
+            final Long start = executionAttributes.getAttribute(START_TIME);
+            if (start == null) {
+                return null;
+            }
+            final OperationMetrics metrics = target(executionAttributes).get(operation);
+            metrics.calls.increment();
+            final long duration = System.nanoTime() - start;
+            metrics.latency.record(duration);
+            if (slowCallThreshold > 0 && duration >= slowCallThreshold) {
+                final String target = request.getValueForField("Key", String.class)
+                        .or(() -> request.getValueForField("Prefix", String.class))
+                        .orElse("");
+                log.warn("Slow AWS S3 %s of '%s' took %d ms.", operation.name().toLowerCase(Locale.ROOT), target, TimeUnit.NANOSECONDS.toMillis(duration));
+            }
+            return metrics;
+        }
+
+        private long uploadedBytes(final SdkHttpRequest httpRequest) {
+            // n.b. chunk-encoded uploads state the length of the payload separately
+            return httpRequest.firstMatchingHeader("x-amz-decoded-content-length")
+                    .or(() -> httpRequest.firstMatchingHeader("Content-Length"))
+                    .map(Long::parseLong)
+                    .orElse(0L);
+        }
+    }
+}
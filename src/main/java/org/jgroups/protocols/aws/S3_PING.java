@@ -1,35 +1,110 @@
 package org.jgroups.protocols.aws;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.jgroups.Address;
+import org.jgroups.View;
+import org.jgroups.annotations.ManagedAttribute;
+import org.jgroups.annotations.ManagedOperation;
 import org.jgroups.annotations.Property;
+import org.jgroups.conf.AttributeType;
 import org.jgroups.conf.ClassConfigurator;
 import org.jgroups.logging.LogFactory;
 import org.jgroups.protocols.FILE_PING;
 import org.jgroups.protocols.PingData;
+import org.jgroups.protocols.aws.S3Metrics.Operation;
+import org.jgroups.util.ByteArrayDataOutputStream;
+import org.jgroups.util.NameCache;
 import org.jgroups.util.Responses;
 import org.jgroups.util.Util;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
-import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.SdkHttpResponse;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.retries.api.RetryStrategy;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3BaseClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.S3ClientBuilder;
 import software.amazon.awssdk.services.s3.model.BucketAlreadyExistsException;
 import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
-import software.amazon.awssdk.services.s3.model.ListObjectsRequest;
-import software.amazon.awssdk.services.s3.model.ListObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
 import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.S3Object;
 import software.amazon.awssdk.services.s3.model.ServerSideEncryption;
 
@@ -45,7 +120,28 @@ public class S3_PING extends FILE_PING {
     protected static final short  JGROUPS_PROTOCOL_DEFAULT_MAGIC_NUMBER=789;
     protected static final int    SERIALIZATION_BUFFER_SIZE=4096;
     protected static final String SERIALIZED_CONTENT_TYPE="text/plain";
+    protected static final String BINARY_SERIALIZED_CONTENT_TYPE="application/octet-stream";
+    // n.b. the text format starts with a logical name, which never contains a NUL character
+    protected static final byte[] BINARY_FORMAT_MAGIC={0, 'S', '3', 'P'};
+    protected static final byte   BINARY_FORMAT_VERSION=1;
+    protected static final byte   BINARY_FORMAT_FLAG_COMPRESSED=1;
+    protected static final int    BINARY_FORMAT_HEADER_SIZE=BINARY_FORMAT_MAGIC.length + 2;
+    // n.b. far beyond the size of any cluster, a larger count is only found in corrupt member files
+    protected static final int    BINARY_FORMAT_MAX_ENTRIES=1 << 16;
     protected static final String MAGIC_NUMBER_SYSTEM_PROPERTY="s3ping.magic_number";
+    protected static final int    MAX_KEYS_PER_DELETE=1000;
+    // n.b. member file names start with the UUID of the member, so names starting with '_' cannot collide with them
+    protected static final String RESERVED_NAME_PREFIX="_";
+    protected static final String CLUSTER_SNAPSHOT_NAME=RESERVED_NAME_PREFIX + "snapshot";
+    protected static final String JOURNAL_NAME=RESERVED_NAME_PREFIX + "journal/";
+    // n.b. the member name of the journal entry appended once all objects of the cluster were removed
+    protected static final String JOURNAL_RESET_NAME=RESERVED_NAME_PREFIX + "reset";
+    protected static final int    JOURNAL_TIMESTAMP_LENGTH=13;
+    protected static final int    MAX_SHARD_COUNT=256;
+    protected static final int    HTTP_NOT_MODIFIED=304;
+    // n.b. hedge credits are counted in hundredths of a request, so that each get request earns hedge_budget of them
+    protected static final int    HEDGE_MAX_BURST=10;
+    protected static final long   HEDGE_ADAPTIVE_MIN_SAMPLES=20;
 
     @Property(description = "Forces the AWS S3 client to use path-style addressing for buckets (default: false).",
             systemProperty = {"jgroups.aws.s3.path_style_access_enabled", "JGROUPS_AWS_S3_PATH_STYLE_ACCESS_ENABLED"},
@@ -87,7 +183,368 @@ public class S3_PING extends FILE_PING {
             exposeAsManagedAttribute = false)
     protected String kms_key_id;
 
+    @Property(description = "The HTTP client implementation used by the AWS S3 client: 'apache', 'url-connection' or 'crt'; the latter two require additional dependencies (default: apache).",
+            systemProperty = {"jgroups.aws.s3.http_client", "JGROUPS_AWS_S3_HTTP_CLIENT"},
+            writable = false)
+    protected String http_client = S3Clients.APACHE;
+
+    @Property(description = "The maximum number of connections the HTTP client keeps open to AWS S3 (default: 50).",
+            systemProperty = {"jgroups.aws.s3.max_connections", "JGROUPS_AWS_S3_MAX_CONNECTIONS"},
+            writable = false)
+    protected int max_connections = 50;
+
+    @Property(description = "The timeout for establishing a connection to AWS S3 (default: 2s).",
+            systemProperty = {"jgroups.aws.s3.connection_timeout", "JGROUPS_AWS_S3_CONNECTION_TIMEOUT"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long connection_timeout = 2_000;
+
+    @Property(description = "The timeout for reading data from or writing data to an established connection to AWS S3 (default: 30s).",
+            systemProperty = {"jgroups.aws.s3.socket_timeout", "JGROUPS_AWS_S3_SOCKET_TIMEOUT"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long socket_timeout = 30_000;
+
+    @Property(description = "The timeout for a complete AWS S3 API call including all retries; 0 means no timeout (default: 0).",
+            systemProperty = {"jgroups.aws.s3.api_call_timeout", "JGROUPS_AWS_S3_API_CALL_TIMEOUT"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long api_call_timeout;
+
+    @Property(description = "The timeout for a single attempt of an AWS S3 API call; 0 means no timeout (default: 0).",
+            systemProperty = {"jgroups.aws.s3.api_call_attempt_timeout", "JGROUPS_AWS_S3_API_CALL_ATTEMPT_TIMEOUT"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long api_call_attempt_timeout;
+
+    @Property(description = "The retry mode of the AWS S3 client: 'standard', 'adaptive' or 'legacy'. The adaptive mode additionally rate limits requests when AWS S3 throttles (default: standard).",
+            systemProperty = {"jgroups.aws.s3.retry_mode", "JGROUPS_AWS_S3_RETRY_MODE"},
+            writable = false)
+    protected String retry_mode = "standard";
+
+    @Property(description = "The maximum number of attempts of an AWS S3 API call including the first one; 0 uses the default of the retry mode (default: 0).",
+            systemProperty = {"jgroups.aws.s3.max_attempts", "JGROUPS_AWS_S3_MAX_ATTEMPTS"},
+            writable = false)
+    protected int max_attempts;
+
+    @Property(description = "The duration of an AWS S3 API call, including retries, from which it is logged as slow together with its key; 0 disables logging of slow calls (default: 0).",
+            systemProperty = {"jgroups.aws.s3.slow_call_threshold", "JGROUPS_AWS_S3_SLOW_CALL_THRESHOLD"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long slow_call_threshold;
+
+    @Property(description = "Whether to share the AWS S3 clients and their connection pools between all protocol instances in the JVM with the same endpoint, region and client configuration (default: false).",
+            systemProperty = {"jgroups.aws.s3.share_client", "JGROUPS_AWS_S3_SHARE_CLIENT"},
+            writable = false)
+    protected boolean share_client;
+
+    @Property(description = "Whether to warm up the AWS S3 clients during initialization by resolving credentials and establishing a connection, so that the first discovery does not pay for it. The warm-up sends a HeadBucket request, so the credentials need permission to list the bucket even if check_if_bucket_exists is disabled (default: false).",
+            systemProperty = {"jgroups.aws.s3.warm_up_client", "JGROUPS_AWS_S3_WARM_UP_CLIENT"},
+            writable = false)
+    protected boolean warm_up_client;
+
+    @Property(description = "Whether to check the bucket and warm up the clients in the background, overlapping with the initialization of the rest of the stack; the first AWS S3 operation waits for it to complete (default: false).",
+            systemProperty = {"jgroups.aws.s3.async_init", "JGROUPS_AWS_S3_ASYNC_INIT"},
+            writable = false)
+    protected boolean async_init;
+
+    @Property(description = "Whether to write member files in a compact binary format instead of the text format of FILE_PING. Both formats are always readable, so this should only be enabled once all members are upgraded to a version which can read it (default: false).",
+            systemProperty = {"jgroups.aws.s3.binary_format", "JGROUPS_AWS_S3_BINARY_FORMAT"},
+            writable = false)
+    protected boolean binary_format;
+
+    @Property(description = "Whether to compress member files written in the binary format (default: false).",
+            systemProperty = {"jgroups.aws.s3.compress", "JGROUPS_AWS_S3_COMPRESS"},
+            writable = false)
+    protected boolean compress;
+
+    @Property(description = "Whether to fetch member files concurrently using the asynchronous AWS S3 client. Responses are processed as they arrive, so the coordinator can be found before all files are fetched (default: false).",
+            systemProperty = {"jgroups.aws.s3.parallel_fetch", "JGROUPS_AWS_S3_PARALLEL_FETCH"},
+            writable = false)
+    protected boolean parallel_fetch;
+
+    @Property(description = "The maximum number of concurrent in-flight requests to AWS S3 when parallel fetching is enabled (default: 32).",
+            systemProperty = {"jgroups.aws.s3.max_concurrent_fetches", "JGROUPS_AWS_S3_MAX_CONCURRENT_FETCHES"},
+            writable = false)
+    protected int max_concurrent_fetches = 32;
+
+    @Property(description = "The deadline for the requests to AWS S3 of a single operation: fetching all member files in a discovery round, whether in parallel or by key, reading the journal, waiting for a read of the same cluster shared with another instance in this JVM and removing objects in bulk; requests still in flight after the deadline are cancelled (default: 10s).",
+            systemProperty = {"jgroups.aws.s3.fetch_timeout", "JGROUPS_AWS_S3_FETCH_TIMEOUT"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long fetch_timeout = 10_000;
+
+    @Property(description = "The maximum number of keys requested per page when listing the objects of a cluster; AWS S3 returns at most 1000 keys per page (default: 1000).",
+            systemProperty = {"jgroups.aws.s3.list_page_size", "JGROUPS_AWS_S3_LIST_PAGE_SIZE"},
+            writable = false)
+    protected int list_page_size = 1000;
+
+    @Property(description = "The maximum number of parsed member files to keep in the discovery cache. Member files whose ETag did not change since they were last fetched are served from the cache; 0 disables the cache (default: 1000).",
+            systemProperty = {"jgroups.aws.s3.discovery_cache_max_entries", "JGROUPS_AWS_S3_DISCOVERY_CACHE_MAX_ENTRIES"},
+            writable = false)
+    protected int discovery_cache_max_entries = 1000;
+
+    @Property(description = "Whether the coordinator writes a consolidated snapshot of all members into a single object, which is read before falling back to scanning all member files (default: false).",
+            systemProperty = {"jgroups.aws.s3.cluster_snapshot", "JGROUPS_AWS_S3_CLUSTER_SNAPSHOT"},
+            writable = false)
+    protected boolean cluster_snapshot;
+
+    @Property(description = "The maximum age of the cluster snapshot after which readers ignore it and scan all member files; the coordinator refreshes the snapshot at half this interval (default: 60s).",
+            systemProperty = {"jgroups.aws.s3.cluster_snapshot_max_age", "JGROUPS_AWS_S3_CLUSTER_SNAPSHOT_MAX_AGE"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long cluster_snapshot_max_age = 60_000;
+
+    @Property(description = "The delay by which uploads are deferred so that bursts of writes to the same object are coalesced into a single upload of the latest state; 0 uploads immediately (default: 0).",
+            systemProperty = {"jgroups.aws.s3.write_coalescing_delay", "JGROUPS_AWS_S3_WRITE_COALESCING_DELAY"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long write_coalescing_delay;
+
+    @Property(description = "The interval during which content identical to the last uploaded content of an object is not uploaded again. A member file of this member found missing by a complete listing, e.g. as the coordinator removed all files on a view change, is uploaded again regardless; 0 disables change detection (default: 0).",
+            systemProperty = {"jgroups.aws.s3.unchanged_write_refresh_interval", "JGROUPS_AWS_S3_UNCHANGED_WRITE_REFRESH_INTERVAL"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long unchanged_write_refresh_interval;
+
+    @Property(description = "Whether writes and removals are performed by a background writer thread so that the calling threads, e.g. during view installation, never wait for AWS S3. The thread is virtual if the transport uses virtual threads (default: false).",
+            systemProperty = {"jgroups.aws.s3.async_writes", "JGROUPS_AWS_S3_ASYNC_WRITES"},
+            writable = false)
+    protected boolean async_writes;
+
+    @Property(description = "The maximum number of objects with operations waiting for the background writer; when exceeded, the calling thread performs the operation itself (default: 256).",
+            systemProperty = {"jgroups.aws.s3.async_write_queue_capacity", "JGROUPS_AWS_S3_ASYNC_WRITE_QUEUE_CAPACITY"},
+            writable = false)
+    protected int async_write_queue_capacity = 256;
+
+    @Property(description = "The maximum time to wait on stop for the background writer to complete pending operations, including the removal of this member's file (default: 10s).",
+            systemProperty = {"jgroups.aws.s3.async_write_flush_timeout", "JGROUPS_AWS_S3_ASYNC_WRITE_FLUSH_TIMEOUT"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long async_write_flush_timeout = 10_000;
+
+    @Property(description = "Whether to keep the last successfully discovered membership of the cluster and use it when a discovery round fails or exceeds discovery_latency_budget (default: false).",
+            systemProperty = {"jgroups.aws.s3.serve_stale_membership", "JGROUPS_AWS_S3_SERVE_STALE_MEMBERSHIP"},
+            writable = false)
+    protected boolean serve_stale_membership;
+
+    @Property(description = "The maximum age of the last known membership to be used in place of a failed or slow discovery round (default: 10m).",
+            systemProperty = {"jgroups.aws.s3.stale_membership_max_age", "JGROUPS_AWS_S3_STALE_MEMBERSHIP_MAX_AGE"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long stale_membership_max_age = 600_000;
+
+    @Property(description = "The time after which a discovery round uses the last known membership, if any, while the round continues in the background; 0 waits for the round to complete (default: 0).",
+            systemProperty = {"jgroups.aws.s3.discovery_latency_budget", "JGROUPS_AWS_S3_DISCOVERY_LATENCY_BUDGET"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long discovery_latency_budget;
+
+    @Property(description = "The number of consecutive AWS S3 calls failing due to throttling or unavailability after which further calls are suspended for a backoff; 0 disables the circuit breaker (default: 0).",
+            systemProperty = {"jgroups.aws.s3.circuit_breaker_failure_threshold", "JGROUPS_AWS_S3_CIRCUIT_BREAKER_FAILURE_THRESHOLD"},
+            writable = false)
+    protected int circuit_breaker_failure_threshold;
+
+    @Property(description = "The initial backoff during which AWS S3 calls are suspended once the circuit breaker opens (default: 1s).",
+            systemProperty = {"jgroups.aws.s3.circuit_breaker_min_backoff", "JGROUPS_AWS_S3_CIRCUIT_BREAKER_MIN_BACKOFF"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long circuit_breaker_min_backoff = 1_000;
+
+    @Property(description = "The maximum backoff, which doubles each time the circuit breaker opens again after a failed probe call (default: 1m).",
+            systemProperty = {"jgroups.aws.s3.circuit_breaker_max_backoff", "JGROUPS_AWS_S3_CIRCUIT_BREAKER_MAX_BACKOFF"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long circuit_breaker_max_backoff = 60_000;
+
+    @Property(description = "A local directory in which the last discovered membership of each cluster is kept across restarts; on startup the first discovery round uses it right away while reading the member files from AWS S3 in the background. If not set, no local snapshot is kept (default: not set).",
+            systemProperty = {"jgroups.aws.s3.local_snapshot_dir", "JGROUPS_AWS_S3_LOCAL_SNAPSHOT_DIR"},
+            writable = false)
+    protected String local_snapshot_dir;
+
+    @Property(description = "The number of hash derived sub-prefixes the member files of a cluster are spread over, so that the request rate is not limited by that of a single prefix; 0 keeps all member files directly under the cluster prefix (default: 0).",
+            systemProperty = {"jgroups.aws.s3.shard_count", "JGROUPS_AWS_S3_SHARD_COUNT"},
+            writable = false)
+    protected int shard_count;
+
+    @Property(description = "Whether discovery of specific members, e.g. to resolve their physical addresses, fetches their member files directly by key instead of listing the cluster; members whose logical name is unknown or whose file is not found are discovered by listing the cluster (default: false).",
+            systemProperty = {"jgroups.aws.s3.targeted_fetch", "JGROUPS_AWS_S3_TARGETED_FETCH"},
+            writable = false)
+    protected boolean targeted_fetch;
+
+    @Property(description = "The time after which the member file of a member which did not rewrite it is considered to be left behind by a crashed member. Readers skip such files without fetching them and the coordinator removes them in the background; each member rewrites its own file at a third of this interval. This should only be enabled once all members are upgraded to a version which rewrites its file; 0 disables expiry (default: 0).",
+            systemProperty = {"jgroups.aws.s3.member_file_ttl", "JGROUPS_AWS_S3_MEMBER_FILE_TTL"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long member_file_ttl;
+
+    @Property(description = "The time after which a get request of a member file still in flight is duplicated; whichever response arrives first is used and the other request is cancelled. Requires parallel_fetch; 0 disables hedging (default: 0).",
+            systemProperty = {"jgroups.aws.s3.hedge_delay", "JGROUPS_AWS_S3_HEDGE_DELAY"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long hedge_delay;
+
+    @Property(description = "Whether to use the 95th percentile of the observed get request latency as the hedge delay once enough requests were observed, with hedge_delay as its lower bound (default: false).",
+            systemProperty = {"jgroups.aws.s3.hedge_adaptive", "JGROUPS_AWS_S3_HEDGE_ADAPTIVE"},
+            writable = false)
+    protected boolean hedge_adaptive;
+
+    @Property(description = "The maximum number of hedged requests as a percentage of the get requests of member files, which bounds the additional request cost of hedging (default: 5).",
+            systemProperty = {"jgroups.aws.s3.hedge_budget", "JGROUPS_AWS_S3_HEDGE_BUDGET"},
+            writable = false)
+    protected int hedge_budget = 5;
+
+    @Property(description = "The time for which the membership read by a protocol instance is served to other instances in the JVM reading the same cluster from the same bucket; concurrent reads of the same cluster are performed only once. This should be short, as members joining from other hosts are discovered only once it elapses; 0 disables sharing (default: 0).",
+            systemProperty = {"jgroups.aws.s3.shared_discovery_ttl", "JGROUPS_AWS_S3_SHARED_DISCOVERY_TTL"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long shared_discovery_ttl;
+
+    @Property(description = "Whether members also append an entry to a change journal of the cluster whenever they write or remove a member file, so that discovery rounds only read the entries added since the previous round instead of all member files. This should only be enabled once all members are upgraded to a version which writes the journal (default: false).",
+            systemProperty = {"jgroups.aws.s3.journal", "JGROUPS_AWS_S3_JOURNAL"},
+            writable = false)
+    protected boolean journal;
+
+    @Property(description = "The interval at which a discovery round reads all member files instead of the journal, which also discovers members whose changes were missed, e.g. as they crashed (default: 1m).",
+            systemProperty = {"jgroups.aws.s3.journal_full_resync_interval", "JGROUPS_AWS_S3_JOURNAL_FULL_RESYNC_INTERVAL"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long journal_full_resync_interval = 60_000;
+
+    @Property(description = "The time before the latest read journal entry from which the journal is read again, so that entries written late, e.g. due to clock skew between members, are not missed (default: 10s).",
+            systemProperty = {"jgroups.aws.s3.journal_replay_window", "JGROUPS_AWS_S3_JOURNAL_REPLAY_WINDOW"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long journal_replay_window = 10_000;
+
+    @Property(description = "The time after which journal entries are removed by the coordinator; must exceed journal_full_resync_interval plus journal_replay_window (default: 10m).",
+            systemProperty = {"jgroups.aws.s3.journal_retention", "JGROUPS_AWS_S3_JOURNAL_RETENTION"},
+            type = AttributeType.TIME,
+            writable = false)
+    protected long journal_retention = 600_000;
+
     protected S3Client s3Client;
+    protected S3AsyncClient s3AsyncClient;
+
+    /**
+     * The keys of the shared clients in use by this instance; null if the clients are not shared.
+     */
+    protected ClientSettings sharedClientSettings;
+    protected ClientSettings sharedAsyncClientSettings;
+
+    /**
+     * Metrics of the AWS S3 operations of this instance. They are never shared, even if {@link #share_client} is
+     * enabled, only the clients and the circuit breaker are; the requests of this instance carry its metrics instead.
+     */
+    protected final S3Metrics metrics = new S3Metrics();
+    protected final AwsRequestOverrideConfiguration requestOverride = metrics.requestOverride();
+
+    /**
+     * Circuit breaker guarding the AWS S3 clients, if enabled, shared along with the clients if {@link #share_client}
+     * is enabled.
+     */
+    protected S3CircuitBreaker circuitBreaker;
+    protected SharedResourceKey sharedCircuitBreakerKey;
+
+    /**
+     * The last successfully discovered membership by cluster prefix, if {@link #serve_stale_membership} is enabled.
+     */
+    protected final ConcurrentMap<String, KnownMembership> knownMemberships = new ConcurrentHashMap<>();
+
+    /**
+     * Discovery rounds continuing in the background after exceeding {@link #discovery_latency_budget} by cluster prefix.
+     */
+    protected final ConcurrentMap<String, CompletableFuture<List<PingData>>> membershipRefreshes = new ConcurrentHashMap<>();
+
+    /**
+     * The cluster prefixes whose first discovery round already considered the local snapshot, and the content last
+     * written to the local snapshot of each cluster prefix, if {@link #local_snapshot_dir} is set.
+     */
+    protected final Set<String> seededClusters = ConcurrentHashMap.newKeySet();
+    protected final ConcurrentMap<String, byte[]> localSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Lists the shards concurrently if {@link #shard_count} is set.
+     */
+    protected ExecutorService shardListingExecutor;
+
+    /**
+     * The keys of member files in the flat layout already removed by this member after switching to the sharded layout.
+     */
+    protected final Set<String> migratedKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The member file last written by this member, rewritten periodically if {@link #member_file_ttl} is set.
+     */
+    protected volatile MemberFileContent ownMemberFile;
+    protected Future<?> memberFileRewriter;
+
+    /**
+     * The keys of the expired member files seen by the discovery rounds, to be removed by the coordinator.
+     */
+    protected final Set<String> expiredKeys = ConcurrentHashMap.newKeySet();
+    protected final AtomicBoolean sweeping = new AtomicBoolean();
+    protected Future<?> expiredMemberFileSweeper;
+    protected final LongAdder expiredMemberFilesSkipped = new LongAdder();
+    protected final LongAdder expiredMemberFilesRemoved = new LongAdder();
+
+    /**
+     * The budget of hedged requests in hundredths of a request, see {@link #hedge_budget}.
+     */
+    protected final AtomicLong hedgeCredits = new AtomicLong();
+    protected final LongAdder hedgedRequests = new LongAdder();
+    protected final LongAdder hedgedRequestWins = new LongAdder();
+
+    /**
+     * The bucket check and warm-up running in the background if {@link #async_init} is enabled.
+     */
+    protected volatile CompletableFuture<Void> initialization;
+
+    /**
+     * The memberships read by the protocol instances in this JVM if {@link #shared_discovery_ttl} is set.
+     */
+    protected static final S3DiscoveryCache sharedDiscoveryCache = new S3DiscoveryCache();
+    protected final LongAdder sharedDiscoveryHits = new LongAdder();
+
+    /**
+     * The memberships read using the journal per cluster prefix, if {@link #journal} is enabled.
+     */
+    protected final ConcurrentMap<String, JournalState> journalStates = new ConcurrentHashMap<>();
+    // n.b. the content last appended to the journal per cluster prefix, so that unchanged writes are not journaled
+    protected final ConcurrentMap<String, byte[]> journaledData = new ConcurrentHashMap<>();
+    protected final AtomicLong lastJournalTimestamp = new AtomicLong();
+    protected Future<?> journalCleaner;
+    protected final LongAdder journalEntriesRead = new LongAdder();
+    protected final LongAdder journalFullResyncs = new LongAdder();
+
+    /**
+     * Parsed member files keyed by object key, evicted in least-recently-used order; null if caching is disabled.
+     */
+    protected Map<String, CachedMemberList> discoveryCache;
+
+    /**
+     * The contents of the last cluster snapshot written by this member while being the coordinator.
+     */
+    protected volatile byte[] clusterSnapshotData;
+    protected Future<?> clusterSnapshotRefresher;
+
+    /**
+     * The ETag of the cluster snapshot last used by a discovery round, so that a snapshot which did not lead to a join,
+     * e.g. as it names a coordinator which crashed, is not used again.
+     */
+    protected volatile String usedClusterSnapshotETag;
+
+    /**
+     * The latest content of objects whose upload is deferred by {@link #write_coalescing_delay}.
+     */
+    protected final ConcurrentMap<String, byte[]> pendingWrites = new ConcurrentHashMap<>();
+
+    /**
+     * The digests of the content last uploaded per object key.
+     */
+    protected final ConcurrentMap<String, UploadedDigest> uploadedDigests = new ConcurrentHashMap<>();
+
+    protected volatile BackgroundWriter backgroundWriter;
 
     static {
         short magicNumber=JGROUPS_PROTOCOL_DEFAULT_MAGIC_NUMBER;
@@ -120,23 +577,130 @@ public class S3_PING extends FILE_PING {
             bucket_prefix = bucket_prefix + "/";
         }
 
-        S3ClientBuilder builder = S3Client.builder();
-        builder.credentialsProvider(DefaultCredentialsProvider.builder().build());
+        if (max_concurrent_fetches < 1) {
+            throw new IllegalArgumentException("max_concurrent_fetches must be at least 1");
+        }
+        if (list_page_size < 1 || list_page_size > 1000) {
+            throw new IllegalArgumentException("list_page_size must be between 1 and 1000");
+        }
+        if (async_writes && async_write_queue_capacity < 1) {
+            throw new IllegalArgumentException("async_write_queue_capacity must be at least 1");
+        }
+        if (cluster_snapshot && cluster_snapshot_max_age <= 0) {
+            throw new IllegalArgumentException("cluster_snapshot_max_age must be positive");
+        }
+        if (shard_count < 0 || shard_count > MAX_SHARD_COUNT) {
+            throw new IllegalArgumentException("shard_count must be between 0 and " + MAX_SHARD_COUNT);
+        }
+        if (isDefined(local_snapshot_dir)) {
+            Files.createDirectories(Path.of(local_snapshot_dir));
+            log.info("Keeping local membership snapshots in '%s'.", local_snapshot_dir);
+        } else {
+            local_snapshot_dir = null;
+        }
 
-        builder.forcePathStyle(path_style_access_enabled);
+        if (discovery_cache_max_entries > 0) {
+            discoveryCache = Collections.synchronizedMap(new LinkedHashMap<String, CachedMemberList>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, CachedMemberList> eldest) {
+                    return size() > discovery_cache_max_entries;
+                }
+            });
+        }
 
-        Region region = Region.of(region_name);
-        builder.region(region);
+        if (!S3Clients.isSupported(http_client)) {
+            throw new IllegalArgumentException(String.format("Unsupported http_client '%s', expected one of '%s', '%s' or '%s'.",
+                    http_client, S3Clients.APACHE, S3Clients.URL_CONNECTION, S3Clients.CRT));
+        }
+        final RetryMode retryMode = toRetryMode(retry_mode);
+        final URI endpointOverride = isDefined(endpoint) ? new URI(endpoint) : null;
 
-        if (isDefined(endpoint)) {
-            builder.endpointOverride(new URI(endpoint));
+        if (share_client) {
+            sharedClientSettings = clientSettings(false);
+            if (circuit_breaker_failure_threshold > 0) {
+                sharedCircuitBreakerKey = new SharedResourceKey("circuit-breaker", sharedClientSettings);
+                circuitBreaker = S3Clients.acquire(sharedCircuitBreakerKey, this::createCircuitBreaker);
+            }
+            s3Client = S3Clients.acquire(sharedClientSettings, () -> createClient(retryMode, endpointOverride));
+        } else {
+            if (circuit_breaker_failure_threshold > 0) {
+                circuitBreaker = createCircuitBreaker();
+            }
+            s3Client = createClient(retryMode, endpointOverride);
+        }
+        if (parallel_fetch) {
+            if (share_client) {
+                sharedAsyncClientSettings = clientSettings(true);
+                s3AsyncClient = S3Clients.acquire(sharedAsyncClientSettings, () -> createAsyncClient(retryMode, endpointOverride));
+            } else {
+                s3AsyncClient = createAsyncClient(retryMode, endpointOverride);
+            }
+            log.info("Fetching member files concurrently with at most %d requests in flight.", max_concurrent_fetches);
+        }
+        if (endpointOverride != null) {
             log.info("Overriding AWS endpoint to '%s'.", endpoint);
         }
-        s3Client = builder.build();
-        log.info("Using AWS S3 ping in region '%s' with bucket '%s' and prefix '%s'.", region, bucket_name, bucket_prefix);
+        log.info("Using AWS S3 ping in region '%s' with bucket '%s' and prefix '%s'.", region_name, bucket_name, bucket_prefix);
+
+        if (shard_count > 0) {
+            final int threads = Math.min(shard_count + 1, max_concurrent_fetches);
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    task -> getTransport().getThreadFactory().newThread(task, "S3_PING-list"));
+            executor.allowCoreThreadTimeOut(true);
+            shardListingExecutor = executor;
+            log.info("Spreading member files over %d shards.", shard_count);
+        }
 
-        if(!check_if_bucket_exists) return;
+        if (hedge_delay > 0) {
+            if (hedge_budget < 1 || hedge_budget > 100) {
+                throw new IllegalArgumentException("hedge_budget must be between 1 and 100");
+            }
+            if (s3AsyncClient == null) {
+                log.warn("Hedging get requests requires parallel_fetch, hedging is disabled.");
+                hedge_delay = 0;
+            } else {
+                hedgeCredits.set(HEDGE_MAX_BURST * 100L);
+                log.info("Hedging get requests after %s with a budget of %d%% of the requests.", hedge_adaptive ? "the observed 95th percentile latency, at least " + hedge_delay + " ms," : hedge_delay + " ms", hedge_budget);
+            }
+        }
+
+        if (journal) {
+            if (journal_full_resync_interval <= 0 || journal_replay_window < 0) {
+                throw new IllegalArgumentException("journal_full_resync_interval must be positive and journal_replay_window must not be negative");
+            }
+            if (journal_retention <= journal_full_resync_interval + journal_replay_window) {
+                throw new IllegalArgumentException("journal_retention must exceed journal_full_resync_interval plus journal_replay_window");
+            }
+            log.info("Using the change journal for discovery with a full resync every %d ms.", journal_full_resync_interval);
+        }
+
+        if (member_file_ttl > 0) {
+            log.info("Skipping and removing member files not rewritten within %d ms.", member_file_ttl);
+        }
+
+        if (async_init) {
+            // n.b. overlaps with the initialization of the rest of the stack, the first AWS S3 operation awaits it
+            initialization = CompletableFuture.runAsync(this::prepareBucket,
+                    task -> getTransport().getThreadFactory().newThread(task, "S3_PING-init").start());
+        } else {
+            prepareBucket();
+        }
+    }
+
+    /**
+     * Checks that the bucket exists, if enabled, and warms up the clients.
+     */
+    protected void prepareBucket() {
+        if (check_if_bucket_exists) {
+            checkBucket();
+        }
+        if (warm_up_client) {
+            // n.b. the bucket check already warmed up the synchronous client
+            warmUp(check_if_bucket_exists);
+        }
+    }
 
+    protected void checkBucket() {
         boolean bucket_exists;
         HeadBucketRequest headBucketRequest = HeadBucketRequest.builder().bucket(bucket_name).build();
         try {
@@ -161,177 +725,2363 @@ public class S3_PING extends FILE_PING {
         }
     }
 
+    /**
+     * Waits for the asynchronous initialization, if any, to complete before the first AWS S3 operation.
+     */
+    protected void awaitInitialization() {
+        final CompletableFuture<Void> future = initialization;
+        if (future == null)
+            return;
+        try {
+            future.join();
+        } catch (CompletionException | CancellationException e) {
+            log.error(String.format("Failed to initialize AWS S3 bucket '%s'.", bucket_name), e.getCause() != null ? e.getCause() : e);
+        }
+        initialization = null;
+    }
+
+    protected String getBucketKey() {
+        return endpoint + '|' + region_name + '|' + bucket_name;
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (async_writes) {
+            BackgroundWriter writer = new BackgroundWriter();
+            getTransport().getThreadFactory().newThread(writer, "S3_PING-writer").start();
+            backgroundWriter = writer;
+        }
+
+        super.start();
+
+        if (cluster_snapshot) {
+            long interval = cluster_snapshot_max_age / 2;
+            clusterSnapshotRefresher = timer.scheduleWithFixedDelay(this::refreshClusterSnapshot, interval, interval, TimeUnit.MILLISECONDS);
+        }
+
+        if (member_file_ttl > 0) {
+            long interval = Math.max(1, member_file_ttl / 3);
+            memberFileRewriter = timer.scheduleWithFixedDelay(this::rewriteMemberFile, interval, interval, TimeUnit.MILLISECONDS);
+            expiredMemberFileSweeper = timer.scheduleWithFixedDelay(this::sweepExpiredMemberFiles, member_file_ttl, member_file_ttl, TimeUnit.MILLISECONDS);
+        }
+
+        if (journal) {
+            long interval = journal_retention / 2;
+            journalCleaner = timer.scheduleWithFixedDelay(this::removeExpiredJournalEntries, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (clusterSnapshotRefresher != null) {
+            clusterSnapshotRefresher.cancel(false);
+            clusterSnapshotRefresher = null;
+        }
+        if (clusterSnapshotData != null) {
+            // n.b. a snapshot naming this member as the coordinator would mislead joiners after a full-cluster restart
+            clusterSnapshotData = null;
+            removeClusterSnapshot(cluster_name);
+        }
+        usedClusterSnapshotETag = null;
+        if (memberFileRewriter != null) {
+            memberFileRewriter.cancel(false);
+            memberFileRewriter = null;
+        }
+        if (expiredMemberFileSweeper != null) {
+            expiredMemberFileSweeper.cancel(false);
+            expiredMemberFileSweeper = null;
+        }
+        ownMemberFile = null;
+        if (journalCleaner != null) {
+            journalCleaner.cancel(false);
+            journalCleaner = null;
+        }
+
+        // n.b. removes the file of this member, possibly on the background writer
+        super.stop();
+
+        final BackgroundWriter writer = backgroundWriter;
+        if (writer != null) {
+            backgroundWriter = null;
+            try {
+                if (!writer.stop(async_write_flush_timeout)) {
+                    log.warn("Background writer did not complete pending AWS S3 operations within %d ms.", async_write_flush_timeout);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        pendingWrites.clear();
+        uploadedDigests.clear();
+        knownMemberships.clear();
+        seededClusters.clear();
+        expiredKeys.clear();
+        journalStates.clear();
+        journaledData.clear();
+    }
+
     @Override
     public void destroy() {
         super.destroy();
 
+        if (shardListingExecutor != null) {
+            shardListingExecutor.shutdownNow();
+            shardListingExecutor = null;
+        }
+
         // Workaround for https://issues.redhat.com/browse/JGRP-2976
         // In case a shutdown hook was registered, JGroups never deregisters it on stop, so the client must be still
         // available during JVM shutdown.
         if (!register_shutdown_hook && s3Client != null) {
             // SdkAutoCloseable does not throw checked exceptions in its close() methods
-            s3Client.close();
+            if (sharedClientSettings != null) {
+                S3Clients.release(sharedClientSettings);
+            } else {
+                s3Client.close();
+            }
+            if (sharedAsyncClientSettings != null) {
+                S3Clients.release(sharedAsyncClientSettings);
+            } else if (s3AsyncClient != null) {
+                s3AsyncClient.close();
+            }
+            if (sharedCircuitBreakerKey != null) {
+                S3Clients.release(sharedCircuitBreakerKey);
+            }
         }
     }
 
     @Override
-    protected void createRootDir() {
-        // ignore, bucket has to exist
+    public void resetStats() {
+        super.resetStats();
+        metrics.reset();
+        expiredMemberFilesSkipped.reset();
+        expiredMemberFilesRemoved.reset();
+        hedgedRequests.reset();
+        hedgedRequestWins.reset();
+        sharedDiscoveryHits.reset();
+        journalEntriesRead.reset();
+        journalFullResyncs.reset();
     }
 
-    protected String getClusterPrefix(final String clusterName) {
-        return bucket_prefix + clusterName + "/";
+    @ManagedOperation(description = "Prints the counters and latencies of the AWS S3 operations and the discovery rounds")
+    public String printS3Metrics() {
+        return metrics.toString();
     }
 
-    @Override
-    protected void readAll(final List<Address> members, final String clustername, final Responses responses) {
-        if(clustername == null)
-            return;
+    @ManagedAttribute(description = "Number of expired member files skipped by discovery rounds")
+    public long getExpiredMemberFilesSkipped() {
+        return expiredMemberFilesSkipped.sum();
+    }
 
-        final String clusterPrefix=getClusterPrefix(clustername);
+    @ManagedAttribute(description = "Number of expired member files removed by this member")
+    public long getExpiredMemberFilesRemoved() {
+        return expiredMemberFilesRemoved.sum();
+    }
 
-        if(log.isTraceEnabled())
-            log.trace("Getting entries for cluster '%s'.", clusterPrefix);
+    @ManagedAttribute(description = "Number of journal entries read by discovery rounds")
+    public long getJournalEntriesRead() {
+        return journalEntriesRead.sum();
+    }
 
-        try {
-            ListObjectsRequest listObjectsRequest = ListObjectsRequest.builder().bucket(bucket_name).prefix(clusterPrefix).build();
-            final ListObjectsResponse objects = s3Client.listObjects(listObjectsRequest);
+    @ManagedAttribute(description = "Number of discovery rounds which read all member files instead of the journal")
+    public long getJournalFullResyncs() {
+        return journalFullResyncs.sum();
+    }
 
-            if(log.isTraceEnabled())
-                log.trace("Got object listing, %d entries for cluster '%s'.", objects.contents().size(), clusterPrefix);
+    @ManagedAttribute(description = "Number of discovery rounds served by a recent or concurrent read of the same cluster in this JVM")
+    public long getSharedDiscoveryHits() {
+        return sharedDiscoveryHits.sum();
+    }
 
-            // TODO batching not supported; can result in wrong lists if bucket has too many entries
+    @ManagedAttribute(description = "Number of hedged AWS S3 get requests")
+    public long getS3HedgedGets() {
+        return hedgedRequests.sum();
+    }
 
-            for (final S3Object s3Object : objects.contents()) {
-                if (log.isTraceEnabled())
-                    log.trace("Fetching data for object '%s'.", s3Object.key());
+    @ManagedAttribute(description = "Number of hedged AWS S3 get requests which completed before the original request")
+    public long getS3HedgedGetWins() {
+        return hedgedRequestWins.sum();
+    }
 
-                if (s3Object.size() > 0) {
-                    GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(bucket_name).key(s3Object.key()).build();
-                    ResponseBytes<GetObjectResponse> objectAsBytes = s3Client.getObjectAsBytes(getObjectRequest);
+    @ManagedAttribute(description = "Number of completed AWS S3 list requests")
+    public long getS3ListCount() {
+        return metrics.get(Operation.LIST).getCalls();
+    }
 
-                    if (log.isTraceEnabled()) {
-                        log.trace("Parsing data for object '%s': '%s'.", s3Object.key(), objectAsBytes.toString());
-                    }
+    @ManagedAttribute(description = "Number of failed AWS S3 list requests")
+    public long getS3ListErrors() {
+        return metrics.get(Operation.LIST).getErrors();
+    }
 
-                    final List<PingData> data = this.read(objectAsBytes.asInputStream());
-                    if (data == null) {
-                        log.debug("Fetched update for cluster '%s' member list in AWS S3 is empty.", clusterPrefix);
-                        break;
-                    }
-                    for (final PingData pingData : data) {
-                        if (members == null || members.contains(pingData.getAddress())) {
-                            responses.addResponse(pingData, pingData.isCoord());
-                            if (log.isTraceEnabled())
-                                log.trace("Added member '%s', members '%s'.", pingData, members != null);
-                        }
-                        if (local_addr != null && !local_addr.equals(pingData.getAddress())) {
-                            addDiscoveryResponseToCaches(pingData.getAddress(), pingData.getLogicalName(), pingData.getPhysicalAddr());
-                            if (log.isTraceEnabled()) {
-                                log.trace("Added possible member '%s' with local address '%s'.", pingData, local_addr);
-                            }
-                        }
-                        if (log.isTraceEnabled())
-                            log.trace("Processed entry in AWS S3: '%s' -> '%s'.", s3Object.key(), pingData);
-                    }
-                } else {
-                    if (log.isTraceEnabled())
-                        log.trace("Skipping empty object '%s'.", s3Object.key());
-                }
-            }
-            log.debug("Fetched update for member list in AWS S3 for cluster '%s'.", clusterPrefix);
-        } catch (final Exception e) {
-            log.error(String.format("Failed getting member list from AWS S3 for cluster '%s'.", clusterPrefix), e);
-        }
+    @ManagedAttribute(description = "Number of throttled AWS S3 list request attempts")
+    public long getS3ListThrottled() {
+        return metrics.get(Operation.LIST).getThrottled();
     }
 
-    @Override
-    protected void write(final List<PingData> list, final String clustername) {
-        final String filename=addressToFilename(local_addr);
-        final String key = getClusterPrefix(clustername) + filename;
+    @ManagedAttribute(description = "Latency of AWS S3 list requests")
+    public String getS3ListLatency() {
+        return metrics.get(Operation.LIST).getLatency().toString();
+    }
 
-        try {
-            final ByteArrayOutputStream outStream = new ByteArrayOutputStream(SERIALIZATION_BUFFER_SIZE);
-            this.write(list, outStream);
-            final byte[] data = outStream.toByteArray();
+    @ManagedAttribute(description = "Number of objects returned by AWS S3 list requests")
+    public long getS3ObjectsListed() {
+        return metrics.getObjectsListed();
+    }
 
-            if (log.isTraceEnabled()) {
-                log.trace("New AWS S3 file content (%d bytes): %s", data.length, new String(data));
-            }
+    @ManagedAttribute(description = "Number of completed AWS S3 get requests")
+    public long getS3GetCount() {
+        return metrics.get(Operation.GET).getCalls();
+    }
 
-            PutObjectRequest.Builder putRequestBuilder = PutObjectRequest.builder()
-                    .bucket(bucket_name)
-                    .key(key)
-                    .contentType(SERIALIZED_CONTENT_TYPE);
+    @ManagedAttribute(description = "Number of failed AWS S3 get requests")
+    public long getS3GetErrors() {
+        return metrics.get(Operation.GET).getErrors();
+    }
 
-            if (acl_grant_bucket_owner_full_control) {
-                putRequestBuilder.acl(ObjectCannedACL.BUCKET_OWNER_FULL_CONTROL);
-            }
+    @ManagedAttribute(description = "Number of throttled AWS S3 get request attempts")
+    public long getS3GetThrottled() {
+        return metrics.get(Operation.GET).getThrottled();
+    }
 
-            if (isDefined(kms_key_id)) {
-                putRequestBuilder.serverSideEncryption(ServerSideEncryption.AWS_KMS);
-                putRequestBuilder.ssekmsKeyId(kms_key_id);
-            }
+    @ManagedAttribute(description = "Number of bytes downloaded by AWS S3 get requests", type = AttributeType.BYTES)
+    public long getS3GetBytes() {
+        return metrics.get(Operation.GET).getBytes();
+    }
 
-            RequestBody requestBody = RequestBody.fromBytes(data);
-            s3Client.putObject(putRequestBuilder.build(), requestBody);
+    @ManagedAttribute(description = "Latency of AWS S3 get requests")
+    public String getS3GetLatency() {
+        return metrics.get(Operation.GET).getLatency().toString();
+    }
 
-            log.debug("Wrote member list to AWS S3: '%s' -> '%s'.", key, list);
-        } catch (final Exception e) {
-            log.error(String.format("Failed to update member list in AWS S3 in '%s'.", key), e);
-        }
+    @ManagedAttribute(description = "Number of completed AWS S3 put requests")
+    public long getS3PutCount() {
+        return metrics.get(Operation.PUT).getCalls();
     }
 
-    @Override
-    protected void remove(final String clustername, final Address addr) {
-        if(clustername == null || addr == null)
-            return;
-        String filename=addressToFilename(addr);
-        String key=getClusterPrefix(clustername) + filename;
-        try {
-            if(log.isTraceEnabled())
-                log.trace("Removing key '%s'.", key);
-            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder().bucket(bucket_name).key(key).build();
-            s3Client.deleteObject(deleteObjectRequest);
-        }
-        catch(Exception e) {
-            log.error(Util.getMessage("FailureRemovingData"), e);
-        }
+    @ManagedAttribute(description = "Number of failed AWS S3 put requests")
+    public long getS3PutErrors() {
+        return metrics.get(Operation.PUT).getErrors();
     }
 
-    @Override
-    protected void removeAll(String clustername) {
-        if(clustername == null)
-            return;
+    @ManagedAttribute(description = "Number of throttled AWS S3 put request attempts")
+    public long getS3PutThrottled() {
+        return metrics.get(Operation.PUT).getThrottled();
+    }
 
-        final String clusterPrefix=getClusterPrefix(clustername);
+    @ManagedAttribute(description = "Number of bytes uploaded by AWS S3 put requests", type = AttributeType.BYTES)
+    public long getS3PutBytes() {
+        return metrics.get(Operation.PUT).getBytes();
+    }
 
-        try {
-            final ListObjectsRequest listRequest = ListObjectsRequest.builder().bucket(bucket_name).prefix(clusterPrefix).build();
-            final ListObjectsResponse objects = s3Client.listObjects(listRequest);
+    @ManagedAttribute(description = "Latency of AWS S3 put requests")
+    public String getS3PutLatency() {
+        return metrics.get(Operation.PUT).getLatency().toString();
+    }
 
+    @ManagedAttribute(description = "Number of completed AWS S3 delete requests, including bulk deletes")
+    public long getS3DeleteCount() {
+        return metrics.get(Operation.DELETE).getCalls();
+    }
+
+    @ManagedAttribute(description = "Number of failed AWS S3 delete requests")
+    public long getS3DeleteErrors() {
+        return metrics.get(Operation.DELETE).getErrors();
+    }
+
+    @ManagedAttribute(description = "Number of throttled AWS S3 delete request attempts")
+    public long getS3DeleteThrottled() {
+        return metrics.get(Operation.DELETE).getThrottled();
+    }
+
+    @ManagedAttribute(description = "Latency of AWS S3 delete requests")
+    public String getS3DeleteLatency() {
+        return metrics.get(Operation.DELETE).getLatency().toString();
+    }
+
+    @ManagedAttribute(description = "State of the circuit breaker guarding the AWS S3 clients, if enabled")
+    public String getS3CircuitBreakerState() {
+        return circuitBreaker != null ? circuitBreaker.getState().name() : null;
+    }
+
+    @ManagedAttribute(description = "Number of AWS S3 calls rejected by the open circuit breaker")
+    public long getS3CircuitBreakerRejected() {
+        return circuitBreaker != null ? circuitBreaker.getRejected() : 0;
+    }
+
+    @ManagedAttribute(description = "Number of discovery rounds reading the member files from AWS S3")
+    public long getS3DiscoveryRounds() {
+        return metrics.getDiscoveryRounds().getCount();
+    }
+
+    @ManagedAttribute(description = "Duration of discovery rounds reading the member files from AWS S3")
+    public String getS3DiscoveryRoundLatency() {
+        return metrics.getDiscoveryRounds().toString();
+    }
+
+    protected S3Client createClient(final RetryMode retryMode, final URI endpointOverride) {
+        return configure(S3Client.builder(), retryMode, endpointOverride)
+                .httpClientBuilder(S3Clients.httpClientBuilder(http_client, max_connections,
+                        Duration.ofMillis(connection_timeout), Duration.ofMillis(socket_timeout)))
+                .build();
+    }
+
+    protected S3AsyncClient createAsyncClient(final RetryMode retryMode, final URI endpointOverride) {
+        return configure(S3AsyncClient.builder(), retryMode, endpointOverride)
+                .httpClientBuilder(S3Clients.asyncHttpClientBuilder(http_client, max_connections,
+                        Duration.ofMillis(connection_timeout), Duration.ofMillis(socket_timeout)))
+                .build();
+    }
+
+    /**
+     * Applies the common configuration to both the synchronous and the asynchronous AWS S3 client builders.
+     */
+    protected <B extends S3BaseClientBuilder<B, ?>> B configure(final B builder, final RetryMode retryMode, final URI endpointOverride) {
+        builder.credentialsProvider(DefaultCredentialsProvider.builder().build());
+        builder.forcePathStyle(path_style_access_enabled);
+        builder.region(Region.of(region_name));
+
+        if (endpointOverride != null) {
+            builder.endpointOverride(endpointOverride);
+        }
+
+        RetryStrategy retryStrategy = AwsRetryStrategy.forRetryMode(retryMode);
+        if (max_attempts > 0) {
+            retryStrategy = retryStrategy.toBuilder().maxAttempts(max_attempts).build();
+        }
+        ClientOverrideConfiguration.Builder overrideConfiguration = ClientOverrideConfiguration.builder().retryStrategy(retryStrategy);
+        if (circuitBreaker != null) {
+            // n.b. registered first, so that rejected calls are not recorded as failed calls by the metrics
+            overrideConfiguration.addExecutionInterceptor(circuitBreaker.interceptor());
+        }
+        overrideConfiguration.addExecutionInterceptor(metrics.interceptor(log, slow_call_threshold));
+        if (api_call_timeout > 0) {
+            overrideConfiguration.apiCallTimeout(Duration.ofMillis(api_call_timeout));
+        }
+        if (api_call_attempt_timeout > 0) {
+            overrideConfiguration.apiCallAttemptTimeout(Duration.ofMillis(api_call_attempt_timeout));
+        }
+        builder.overrideConfiguration(overrideConfiguration.build());
+        return builder;
+    }
+
+    protected S3CircuitBreaker createCircuitBreaker() {
+        return new S3CircuitBreaker(log, circuit_breaker_failure_threshold, circuit_breaker_min_backoff, circuit_breaker_max_backoff);
+    }
+
+    protected ClientSettings clientSettings(final boolean async) {
+        return new ClientSettings(async, endpoint, region_name, path_style_access_enabled, http_client, max_connections,
+                connection_timeout, socket_timeout, api_call_timeout, api_call_attempt_timeout, retry_mode, max_attempts, slow_call_threshold,
+                circuit_breaker_failure_threshold, circuit_breaker_min_backoff, circuit_breaker_max_backoff);
+    }
+
+    /**
+     * Resolves the credentials and establishes the connections of the clients ahead of the first discovery round.
+     * Failures are not fatal since the bucket might not exist yet or the credentials might lack the permission.
+     */
+    protected void warmUp(final boolean bucketChecked) {
+        final HeadBucketRequest headBucketRequest = HeadBucketRequest.builder().bucket(bucket_name).build();
+        if (s3AsyncClient != null) {
+            s3AsyncClient.headBucket(headBucketRequest).whenComplete((response, throwable) -> {
+                if (throwable != null)
+                    log.debug("Warming up the asynchronous AWS S3 client failed: %s", throwable);
+            });
+        }
+        // n.b. the bucket check performs the same request
+        if (!bucketChecked) {
+            try {
+                s3Client.headBucket(headBucketRequest);
+            } catch (Exception e) {
+                log.debug("Warming up the AWS S3 client failed: %s", e);
+            }
+        }
+    }
+
+    protected static RetryMode toRetryMode(final String retryMode) {
+        try {
+            return RetryMode.valueOf(retryMode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException(String.format("Unsupported retry_mode '%s', expected one of 'standard', 'adaptive' or 'legacy'.", retryMode), e);
+        }
+    }
+
+    @Override
+    protected void createRootDir() {
+        // ignore, bucket has to exist
+    }
+
+    protected String getClusterPrefix(final String clusterName) {
+        return bucket_prefix + clusterName + "/";
+    }
+
+    /**
+     * @return the key of the member file of the given member, within its shard if {@link #shard_count} is set
+     */
+    protected String getMemberKey(final String clusterPrefix, final Address addr) {
+        final String filename = addressToFilename(addr);
+        if (shard_count <= 0)
+            return clusterPrefix + filename;
+        // n.b. derived from the address only, as the logical name might not be known when the file is removed
+        return clusterPrefix + getShardName(Math.floorMod(addressAsString(addr).hashCode(), shard_count)) + "/" + filename;
+    }
+
+    /**
+     * @return the keys the member file of the given member might be stored under, i.e. including its key in the flat
+     * layout if {@link #shard_count} is set
+     */
+    protected List<String> getMemberKeys(final String clusterPrefix, final Address addr) {
+        final String key = getMemberKey(clusterPrefix, addr);
+        if (shard_count <= 0)
+            return List.of(key);
+        return List.of(key, clusterPrefix + addressToFilename(addr));
+    }
+
+    protected static String getShardName(final int shard) {
+        return String.format("%02x", shard);
+    }
+
+    @Override
+    protected void readAll(final List<Address> members, final String clustername, final Responses responses) {
+        if(clustername == null)
+            return;
+
+        final long start = System.nanoTime();
+        try {
+            final List<Address> remaining = targeted_fetch && members != null && !members.isEmpty()
+                    ? fetchTargeted(members, clustername, responses)
+                    : members;
+            if (remaining == null || !remaining.isEmpty()) {
+                readMemberFiles(remaining, clustername, responses);
+            }
+        } finally {
+            metrics.recordDiscoveryRound(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Fetches the member files of the given members directly by their keys, concurrently if the asynchronous client is
+     * available or else one after another until {@link #fetch_timeout} elapsed. Member files cached by the discovery
+     * cache are only fetched if they changed, and member files older than {@link #member_file_ttl} are skipped.
+     *
+     * @return the members which were not found, as their logical name, which is part of the key, is unknown or no
+     * member file exists under their key
+     */
+    protected List<Address> fetchTargeted(final List<Address> members, final String clustername, final Responses responses) {
+        awaitInitialization();
+        final String clusterPrefix = getClusterPrefix(clustername);
+        final List<Address> remaining = new ArrayList<>();
+        final Map<Address, CompletableFuture<Boolean>> fetches = new LinkedHashMap<>();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetch_timeout);
+        for (final Address member : members) {
+            // n.b. without the asynchronous client, each fetch completes before the next one is issued
+            if (NameCache.get(member) == null || s3AsyncClient == null && System.nanoTime() - deadline >= 0) {
+                remaining.add(member);
+            } else {
+                fetches.put(member, fetchMemberFile(getMemberKeys(clusterPrefix, member).iterator(), members, responses));
+            }
+        }
+
+        for (final Map.Entry<Address, CompletableFuture<Boolean>> fetch : fetches.entrySet()) {
+            try {
+                if (!fetch.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    remaining.add(fetch.getKey());
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fetches.values().forEach(future -> future.cancel(true));
+                return List.of();
+            } catch (final ExecutionException | TimeoutException e) {
+                fetch.getValue().cancel(true);
+                remaining.add(fetch.getKey());
+                log.debug("Failed fetching the member file of '%s' from AWS S3: %s", fetch.getKey(), e);
+            }
+        }
+        if (log.isTraceEnabled())
+            log.trace("Fetched the member files of %d of %d members by key for cluster '%s'.", members.size() - remaining.size(), members.size(), clusterPrefix);
+        return remaining;
+    }
+
+    /**
+     * Fetches the first existing object of the given keys and adds its members to the responses.
+     *
+     * @return a future completing with false if none of the objects exists
+     */
+    protected CompletableFuture<Boolean> fetchMemberFile(final Iterator<String> keys, final List<Address> members, final Responses responses) {
+        final String key = keys.next();
+        final CachedMemberList cached = discoveryCache != null ? discoveryCache.get(key) : null;
+        final GetObjectRequest.Builder getObjectRequest = GetObjectRequest.builder().bucket(bucket_name).overrideConfiguration(requestOverride).key(key);
+        if (cached != null) {
+            getObjectRequest.ifNoneMatch(cached.eTag());
+        }
+        return getMemberFile(getObjectRequest.build()).handle((memberFile, throwable) -> {
+            if (throwable == null) {
+                final GetObjectResponse response = memberFile.response();
+                cacheMemberList(key, response.eTag(), memberFile.data());
+                // n.b. an expired member file is treated as missing, so that the member is looked up by listing
+                if (isExpired(key, response.lastModified(), response.sdkHttpResponse()))
+                    return keys.hasNext() ? fetchMemberFile(keys, members, responses) : CompletableFuture.completedFuture(false);
+                addResponses(key, memberFile.data(), members, responses);
+                return CompletableFuture.completedFuture(true);
+            }
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (cached != null && cause instanceof S3Exception && ((S3Exception) cause).statusCode() == HTTP_NOT_MODIFIED) {
+                final AwsErrorDetails details = ((S3Exception) cause).awsErrorDetails();
+                final SdkHttpResponse httpResponse = details != null ? details.sdkHttpResponse() : null;
+                if (httpResponse != null && isExpired(key, httpResponse.firstMatchingHeader("Last-Modified").map(S3_PING::parseHttpDate).orElse(null), httpResponse))
+                    return keys.hasNext() ? fetchMemberFile(keys, members, responses) : CompletableFuture.completedFuture(false);
+                if (log.isTraceEnabled())
+                    log.trace("Using cached data for unchanged object '%s' with ETag %s.", key, cached.eTag());
+                addResponses(key, cached.data(), members, responses);
+                return CompletableFuture.completedFuture(true);
+            }
+            if (cause instanceof NoSuchKeyException) {
+                return keys.hasNext() ? fetchMemberFile(keys, members, responses) : CompletableFuture.completedFuture(false);
+            }
+            return CompletableFuture.<Boolean>failedFuture(cause);
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Gets and parses a member file using the asynchronous client if available, or the synchronous client otherwise.
+     */
+    protected CompletableFuture<MemberFile> getMemberFile(final GetObjectRequest getObjectRequest) {
+        if (s3AsyncClient != null) {
+            return getMemberFileAsync(getObjectRequest);
+        }
+        try {
+            return CompletableFuture.completedFuture(s3Client.getObject(getObjectRequest, this::readMemberFile));
+        } catch (final Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Gets and parses a member file using the asynchronous client, hedging the request if {@link #hedge_delay} is set.
+     */
+    protected CompletableFuture<MemberFile> getMemberFileAsync(final GetObjectRequest getObjectRequest) {
+        if (hedge_delay <= 0) {
+            return s3AsyncClient.getObject(getObjectRequest, new MemberFileTransformer());
+        }
+        hedgeCredits.accumulateAndGet(hedge_budget, (credits, earned) -> Math.min(credits + earned, HEDGE_MAX_BURST * 100L));
+        return new HedgedGet(getObjectRequest).start(getHedgeDelay());
+    }
+
+    /**
+     * @return the delay after which a get request is hedged, which is the observed 95th percentile latency if
+     *         {@link #hedge_adaptive} is enabled and enough requests were observed, but at least {@link #hedge_delay}
+     */
+    protected long getHedgeDelay() {
+        if (!hedge_adaptive)
+            return hedge_delay;
+        final S3Metrics.LatencyHistogram latency = metrics.get(Operation.GET).getLatency();
+        if (latency.getCount() < HEDGE_ADAPTIVE_MIN_SAMPLES)
+            return hedge_delay;
+        return Math.max(hedge_delay, (long) Math.ceil(latency.getPercentile(95)));
+    }
+
+    /**
+     * Takes a hedge credit if available.
+     */
+    protected boolean acquireHedgeCredit() {
+        long credits;
+        do {
+            credits = hedgeCredits.get();
+            if (credits < 100)
+                return false;
+        } while (!hedgeCredits.compareAndSet(credits, credits - 100));
+        return true;
+    }
+
+    /**
+     * Parses a member file straight from the response stream of the synchronous client.
+     */
+    protected MemberFile readMemberFile(final GetObjectResponse response, final InputStream in) {
+        final MemberFile memberFile = new MemberFile(response, parse(in));
+        if (log.isTraceEnabled())
+            log.trace("Parsed %d bytes of member data.", response.contentLength());
+        return memberFile;
+    }
+
+    /**
+     * Reads the member files of the cluster, falling back to the last known membership if
+     * {@link #serve_stale_membership} is enabled and the round fails or exceeds {@link #discovery_latency_budget}. The
+     * first round of a cluster uses the local snapshot, if any, instead.
+     */
+    protected void readMemberFiles(final List<Address> members, final String clustername, final Responses responses) {
+        if (!serve_stale_membership && local_snapshot_dir == null) {
+            if (shared_discovery_ttl <= 0 && !journal) {
+                fetchMemberFiles(members, clustername, responses);
+                return;
+            }
+            // n.b. members found by a scan are streamed into the responses, the journal or a shared read adds the rest
+            final List<PingData> membership = fetchMembership(members, clustername, responses);
+            if (membership != null) {
+                addResponses(getClusterPrefix(clustername), membership, members, responses);
+            }
+            return;
+        }
+
+        final String clusterPrefix = getClusterPrefix(clustername);
+        if (local_snapshot_dir != null && seededClusters.add(clusterPrefix) && seedFromLocalSnapshot(clustername, members, responses))
+            return;
+
+        final KnownMembership known = serve_stale_membership ? getKnownMembership(clusterPrefix) : null;
+        if (known != null && circuitBreaker != null && circuitBreaker.isOpen()) {
+            log.debug("AWS S3 is unavailable, using the last known membership of cluster '%s'.", clusterPrefix);
+            addResponses(clusterPrefix, known.members(), members, responses);
+            return;
+        }
+
+        final boolean budgeted = known != null && discovery_latency_budget > 0;
+        List<PingData> current = null;
+        try {
+            final CompletableFuture<List<PingData>> refresh = refreshMembership(members, clustername, responses, budgeted);
+            current = budgeted ? refresh.get(discovery_latency_budget, TimeUnit.MILLISECONDS) : refresh.get();
+        } catch (final TimeoutException e) {
+            log.debug("Discovery of cluster '%s' exceeded its latency budget of %d ms, using the last known membership while it continues in the background.",
+                    clusterPrefix, discovery_latency_budget);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            log.error(String.format("Failed getting member list from AWS S3 for cluster '%s'.", clusterPrefix), e.getCause());
+        }
+
+        if (current != null) {
+            addResponses(clusterPrefix, current, members, responses);
+        } else if (known != null) {
+            log.debug("Using the last known membership of cluster '%s' from %d ms ago.", clusterPrefix,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - known.timestamp()));
+            addResponses(clusterPrefix, known.members(), members, responses);
+        }
+    }
+
+    /**
+     * @return the last known membership of the cluster unless it is older than {@link #stale_membership_max_age}
+     */
+    protected KnownMembership getKnownMembership(final String clusterPrefix) {
+        final KnownMembership known = knownMemberships.get(clusterPrefix);
+        if (known == null || System.nanoTime() - known.timestamp() > TimeUnit.MILLISECONDS.toNanos(stale_membership_max_age))
+            return null;
+        return known;
+    }
+
+    /**
+     * Joins a discovery round of the cluster still in progress in the background, or else runs a new round, in the
+     * background if requested or on the calling thread otherwise.
+     *
+     * @param responses the responses the members are added to as they are read by a new round on the calling thread, or
+     *                  null; a round in the background never adds to them, as it might outlive the discovery request
+     * @return the discovered membership, or null if the round failed
+     */
+    protected CompletableFuture<List<PingData>> refreshMembership(final List<Address> members, final String clustername, final Responses responses,
+                                                                  final boolean background) {
+        final String clusterPrefix = getClusterPrefix(clustername);
+        final CompletableFuture<List<PingData>> inProgress = membershipRefreshes.get(clusterPrefix);
+        if (inProgress != null) {
+            return inProgress;
+        }
+        if (!background) {
+            return CompletableFuture.completedFuture(fetchMembership(members, clustername, responses));
+        }
+        return membershipRefreshes.computeIfAbsent(clusterPrefix, prefix -> {
+            final CompletableFuture<List<PingData>> refresh = new CompletableFuture<>();
+            getTransport().getThreadFactory().newThread(() -> {
+                try {
+                    // n.b. the caller adds the result once it is available within its budget
+                    refresh.complete(fetchMembership(members, clustername, null));
+                } catch (final Throwable t) {
+                    refresh.completeExceptionally(t);
+                } finally {
+                    membershipRefreshes.remove(prefix, refresh);
+                }
+            }, "S3_PING-discovery").start();
+            return refresh;
+        });
+    }
+
+    /**
+     * Reads all member files of the cluster, unless another protocol instance in this JVM read them within
+     * {@link #shared_discovery_ttl} or is reading them right now, in which case its result is used.
+     *
+     * @return the discovered membership, or null if the round failed
+     */
+    protected List<PingData> fetchSharedMembership(final List<Address> members, final String clustername, final Responses responses) {
+        try {
+            final S3DiscoveryCache.CachedRead read = sharedDiscoveryCache.get(getSharedDiscoveryKey(clustername),
+                    TimeUnit.MILLISECONDS.toNanos(shared_discovery_ttl), TimeUnit.MILLISECONDS.toNanos(fetch_timeout),
+                    () -> fetchAllMemberFiles(members, clustername, responses));
+            if (read.shared() && read.membership() != null) {
+                sharedDiscoveryHits.increment();
+                if (log.isTraceEnabled())
+                    log.trace("Using the shared membership of cluster '%s'.", clustername);
+            }
+            return read.membership();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * @return the key of the membership in the shared cache, which includes the configuration determining how the member
+     *         files are read, as instances configured differently must not share their reads
+     */
+    protected String getSharedDiscoveryKey(final String clustername) {
+        return getSharedDiscoveryPrefix(clustername) + shard_count + '|' + journal + '|' + member_file_ttl;
+    }
+
+    protected String getSharedDiscoveryPrefix(final String clustername) {
+        return getBucketKey() + '|' + getClusterPrefix(clustername) + '|';
+    }
+
+    /**
+     * @param responses the responses the members are added to as they are read if all member files are read, or null
+     * @return the members of all member files of the cluster, read using the journal if enabled, or null if they could
+     *         not all be read
+     */
+    protected List<PingData> fetchAllMemberFiles(final List<Address> members, final String clustername, final Responses responses) {
+        return journal ? readJournal(members, clustername, responses) : scanMemberFiles(members, clustername, responses);
+    }
+
+    /**
+     * Reads the entries added to the journal of the cluster since the previous round and applies them to the membership
+     * read by the previous round. All member files are read instead on the first round and then once every
+     * {@link #journal_full_resync_interval}, after a failed round, or once the journal was reset by
+     * {@link #removeAll(String)}. The journal state is only locked to read or apply it, not while reading from AWS S3.
+     *
+     * @param responses the responses the members are added to as they are read if all member files are read, or null
+     * @return the membership, or null if the round failed
+     */
+    protected List<PingData> readJournal(final List<Address> members, final String clustername, final Responses responses) {
+        final String clusterPrefix = getClusterPrefix(clustername);
+        final JournalState state = journalStates.computeIfAbsent(clusterPrefix, prefix -> new JournalState());
+        final long generation;
+        final long watermark;
+        final Set<String> readKeys;
+        final boolean fullResync;
+        synchronized (state) {
+            generation = state.generation;
+            watermark = state.watermark;
+            readKeys = new HashSet<>(state.readKeys);
+            fullResync = state.lastFullResync == 0 || System.nanoTime() - state.lastFullResync >= TimeUnit.MILLISECONDS.toNanos(journal_full_resync_interval);
+        }
+        if (fullResync)
+            return resyncJournal(members, clustername, responses, state, generation);
+
+        final String startAfter = getJournalKey(clusterPrefix + JOURNAL_NAME, Math.max(0, watermark - journal_replay_window), "");
+        final List<JournalEntry> entries;
+        try {
+            entries = readJournalEntries(clusterPrefix, startAfter, readKeys);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (final Exception e) {
+            log.error(String.format("Failed reading the journal from AWS S3 for cluster '%s'.", clusterPrefix), e);
+            synchronized (state) {
+                state.lastFullResync = 0;
+            }
+            return null;
+        }
+
+        synchronized (state) {
+            // n.b. entries read before a concurrent full resync are already reflected by it
+            if (state.generation != generation || !applyJournalEntries(state, startAfter, entries))
+                return new ArrayList<>(state.members.values());
+        }
+        log.debug("The journal of cluster '%s' was reset, reading all member files.", clusterPrefix);
+        return resyncJournal(members, clustername, responses, state, generation);
+    }
+
+    /**
+     * Reads all member files of the cluster and reads the journal from the start of the scan on.
+     *
+     * @param generation the generation of the state the scan replaces; the state is left as is if another round
+     *                   resynced it in the meantime
+     * @return the membership, or null if the scan failed
+     */
+    protected List<PingData> resyncJournal(final List<Address> members, final String clustername, final Responses responses,
+                                           final JournalState state, final long generation) {
+        // n.b. entries written while the member files are scanned are read again by the next round
+        final long start = System.currentTimeMillis();
+        final List<PingData> membership = scanMemberFiles(members, clustername, responses);
+        synchronized (state) {
+            if (membership == null) {
+                state.lastFullResync = 0;
+                return null;
+            }
+            if (state.generation == generation) {
+                state.members.clear();
+                membership.forEach(data -> state.members.put(addressAsString(data.getAddress()), data));
+                state.watermark = start;
+                state.readKeys.clear();
+                state.lastFullResync = System.nanoTime();
+                state.generation++;
+            }
+        }
+        journalFullResyncs.increment();
+        log.debug("Read all member files of cluster '%s', reading its journal from %d.", getClusterPrefix(clustername), start);
+        return membership;
+    }
+
+    /**
+     * Lists the journal entries after the given key and reads those not read before, within {@link #fetch_timeout}.
+     *
+     * @return the entries in the order they were written
+     */
+    protected List<JournalEntry> readJournalEntries(final String clusterPrefix, final String startAfter, final Set<String> readKeys) throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetch_timeout);
+        final String journalPrefix = clusterPrefix + JOURNAL_NAME;
+        final ListObjectsV2Request listRequest = ListObjectsV2Request.builder().bucket(bucket_name).overrideConfiguration(requestOverride).prefix(journalPrefix).startAfter(startAfter).maxKeys(list_page_size).build();
+        final List<JournalEntry> entries = new ArrayList<>();
+        for (final ListObjectsV2Response page : s3Client.listObjectsV2Paginator(listRequest)) {
+            for (final S3Object entry : page.contents()) {
+                final String name = entry.key().substring(journalPrefix.length());
+                if (name.length() <= JOURNAL_TIMESTAMP_LENGTH + 1 || readKeys.contains(entry.key()))
+                    continue;
+                final long timestamp;
+                try {
+                    timestamp = Long.parseLong(name.substring(0, JOURNAL_TIMESTAMP_LENGTH));
+                } catch (final NumberFormatException e) {
+                    log.debug("Ignoring journal entry '%s' with an invalid name.", entry.key());
+                    continue;
+                }
+                final String member = name.substring(JOURNAL_TIMESTAMP_LENGTH + 1);
+                final boolean removal = entry.size() == 0 || JOURNAL_RESET_NAME.equals(member);
+                final List<PingData> data = removal ? null : readJournalEntry(entry.key(), deadline);
+                entries.add(new JournalEntry(entry.key(), timestamp, member, removal, data));
+            }
+        }
+        if (log.isTraceEnabled())
+            log.trace("Read %d journal entries of cluster '%s' after '%s'.", entries.size(), clusterPrefix, startAfter);
+        return entries;
+    }
+
+    /**
+     * Applies the given journal entries, skipping those applied before, in the order they were written.
+     *
+     * @return true if the journal was reset since the previous round, so that all member files need to be read
+     */
+    protected boolean applyJournalEntries(final JournalState state, final String startAfter, final List<JournalEntry> entries) {
+        // n.b. a reset before the last full resync started is reflected by it
+        final long since = state.watermark;
+        boolean reset = false;
+        int read = 0;
+        for (final JournalEntry entry : entries) {
+            if (!state.readKeys.add(entry.key()))
+                continue;
+            if (JOURNAL_RESET_NAME.equals(entry.member())) {
+                reset |= entry.timestamp() >= since;
+            } else if (entry.removal()) {
+                state.members.remove(entry.member());
+            } else if (entry.data() != null) {
+                entry.data().forEach(pingData -> state.members.put(addressAsString(pingData.getAddress()), pingData));
+            }
+            state.watermark = Math.max(state.watermark, entry.timestamp());
+            read++;
+        }
+        // n.b. keys before the replay window are not listed anymore
+        state.readKeys.headSet(startAfter, true).clear();
+        journalEntriesRead.add(read);
+        return reset;
+    }
+
+    /**
+     * @return the members of the journal entry, or null if it was removed in the meantime
+     */
+    protected List<PingData> readJournalEntry(final String key, final long deadline) throws Exception {
+        final CompletableFuture<MemberFile> entry = getMemberFile(GetObjectRequest.builder().bucket(bucket_name).overrideConfiguration(requestOverride).key(key).build());
+        try {
+            return entry.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS).data();
+        } catch (final TimeoutException e) {
+            entry.cancel(true);
+            throw e;
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof NoSuchKeyException)
+                return null;
+            throw e;
+        }
+    }
+
+    /**
+     * @param member the member as returned by {@link #addressAsString(Address)}, or an empty string for the smallest
+     *               key of the timestamp
+     */
+    protected static String getJournalKey(final String journalPrefix, final long timestamp, final String member) {
+        return journalPrefix + String.format("%0" + JOURNAL_TIMESTAMP_LENGTH + "d-", timestamp) + member;
+    }
+
+    /**
+     * Appends an entry to the journal of the cluster, holding the given data or, if empty, recording the removal of the
+     * member. Timestamps of entries appended by this member are strictly increasing.
+     *
+     * @param member the member as returned by {@link #addressAsString(Address)}, or {@link #JOURNAL_RESET_NAME}
+     */
+    protected void appendJournalEntry(final String clusterPrefix, final String member, final byte[] data) {
+        final long now = System.currentTimeMillis();
+        final long timestamp = lastJournalTimestamp.accumulateAndGet(now, (last, current) -> Math.max(last + 1, current));
+        final String key = getJournalKey(clusterPrefix + JOURNAL_NAME, timestamp, member);
+        // n.b. bypasses change detection, as journal keys are never written twice
+        execute(key, () -> {
+            try {
+                putObject(key, data);
+                if (log.isTraceEnabled())
+                    log.trace("Appended journal entry '%s' (%d bytes).", key, data.length);
+            } catch (final Exception e) {
+                log.warn("Failed to append journal entry '%s' in AWS S3: %s", key, e);
+            }
+        });
+    }
+
+    /**
+     * Appends an empty entry to the journal recording the removal of the member file of the given member.
+     */
+    protected void journalRemoval(final String clusterPrefix, final Address member) {
+        if (member.equals(local_addr)) {
+            // n.b. the next write of this member is journaled even if its content did not change
+            journaledData.remove(clusterPrefix);
+        }
+        appendJournalEntry(clusterPrefix, addressAsString(member), new byte[0]);
+    }
+
+    /**
+     * Removes the journal entries older than {@link #journal_retention}, if this member is the coordinator.
+     */
+    protected void removeExpiredJournalEntries() {
+        if (!is_coord || cluster_name == null)
+            return;
+        final String journalPrefix = getClusterPrefix(cluster_name) + JOURNAL_NAME;
+        final String expiry = getJournalKey(journalPrefix, System.currentTimeMillis() - journal_retention, "");
+        try {
+            final List<String> keys = new ArrayList<>();
+            final ListObjectsV2Request listRequest = ListObjectsV2Request.builder().bucket(bucket_name).overrideConfiguration(requestOverride).prefix(journalPrefix).maxKeys(list_page_size).build();
+            // n.b. entries are listed in the order they were written, so the listing stops at the first retained one
+            listing:
+            for (final ListObjectsV2Response page : s3Client.listObjectsV2Paginator(listRequest)) {
+                for (final S3Object entry : page.contents()) {
+                    if (entry.key().compareTo(expiry) >= 0)
+                        break listing;
+                    keys.add(entry.key());
+                }
+            }
+            if (!keys.isEmpty()) {
+                log.debug("Removing %d expired journal entries from AWS S3 in '%s'.", keys.size(), journalPrefix);
+                deleteObjects(keys);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            log.warn("Failed to remove expired journal entries from AWS S3 in '%s': %s", journalPrefix, e);
+        }
+    }
+
+    /**
+     * @param members   the members to add to the given responses, or null to add all of them
+     * @param responses the responses the members are added to as they are read, or null
+     * @return the members of all member files of the cluster, or null if they could not all be read
+     */
+    protected List<PingData> scanMemberFiles(final List<Address> members, final String clustername, final Responses responses) {
+        final Responses collected = responses != null ? new ForwardingResponses(members, responses) : new Responses(false);
+        if (!fetchMemberFiles(null, clustername, collected))
+            return null;
+
+        final List<PingData> membership = new ArrayList<>(collected.size());
+        for (final PingData data : collected) {
+            membership.add(data);
+        }
+        return membership;
+    }
+
+    /**
+     * Reads all member files of the cluster and records them as its last known membership if the round succeeded.
+     *
+     * @param responses the responses the members are added to as they are read if all member files are read, or null
+     * @return the discovered membership, or null if the round failed
+     */
+    protected List<PingData> fetchMembership(final List<Address> members, final String clustername, final Responses responses) {
+        final List<PingData> membership = shared_discovery_ttl > 0
+                ? fetchSharedMembership(members, clustername, responses)
+                : fetchAllMemberFiles(members, clustername, responses);
+        if (membership == null)
+            return null;
+
+        knownMemberships.put(getClusterPrefix(clustername), new KnownMembership(membership, System.nanoTime()));
+        if (local_snapshot_dir != null) {
+            writeLocalSnapshot(getClusterPrefix(clustername), membership);
+        }
+        return membership;
+    }
+
+    /**
+     * Adds the members of the local snapshot of the cluster to the responses and reads the member files from AWS S3
+     * in the background.
+     *
+     * @return true if a local snapshot younger than {@link #stale_membership_max_age} was found
+     */
+    protected boolean seedFromLocalSnapshot(final String clustername, final List<Address> members, final Responses responses) {
+        final String clusterPrefix = getClusterPrefix(clustername);
+        final KnownMembership persisted = readLocalSnapshot(clusterPrefix);
+        if (persisted == null)
+            return false;
+
+        log.debug("Using the local snapshot of cluster '%s' with %d members while reading the member files from AWS S3.", clusterPrefix, persisted.members().size());
+        knownMemberships.putIfAbsent(clusterPrefix, persisted);
+        addResponses(getLocalSnapshotPath(clusterPrefix).toString(), persisted.members(), members, responses);
+        // n.b. the round outlives this call, so the members it reads are not added to its responses
+        refreshMembership(null, clustername, null, true);
+        return true;
+    }
+
+    protected Path getLocalSnapshotPath(final String clusterPrefix) {
+        // n.b. the bucket is part of the name so that protocol instances using different buckets do not collide
+        final String name = (bucket_name + '/' + clusterPrefix).replaceAll("[^A-Za-z0-9._-]", "_");
+        return Path.of(local_snapshot_dir, name + ".members");
+    }
+
+    /**
+     * @return the membership stored in the local snapshot, or null if there is none or it is too old
+     */
+    protected KnownMembership readLocalSnapshot(final String clusterPrefix) {
+        final Path path = getLocalSnapshotPath(clusterPrefix);
+        try {
+            if (!Files.isRegularFile(path))
+                return null;
+            final long age = System.currentTimeMillis() - Files.getLastModifiedTime(path).toMillis();
+            if (age > stale_membership_max_age) {
+                log.debug("Ignoring the local snapshot '%s' which is %d ms old.", path, age);
+                return null;
+            }
+            final List<PingData> members = parse(new ByteArrayInputStream(Files.readAllBytes(path)));
+            if (members == null || members.isEmpty())
+                return null;
+            return new KnownMembership(members, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(Math.max(0, age)));
+        } catch (final IOException e) {
+            log.warn("Failed to read the local snapshot '%s': %s", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the local snapshot of the cluster if the membership changed. The local member is left out as its next
+     * incarnation will have a different address.
+     */
+    protected void writeLocalSnapshot(final String clusterPrefix, final List<PingData> membership) {
+        final Path path = getLocalSnapshotPath(clusterPrefix);
+        try {
+            final List<PingData> others = membership.stream()
+                    .filter(data -> !data.getAddress().equals(local_addr))
+                    .collect(Collectors.toList());
+            final byte[] data = serialize(others, true);
+            if (Arrays.equals(data, localSnapshots.get(clusterPrefix)))
+                return;
+
+            // n.b. written to a temporary file first, so that a crash never leaves a partially written snapshot behind
+            final Path temporary = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporary, data);
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            localSnapshots.put(clusterPrefix, data);
+            if (log.isTraceEnabled())
+                log.trace("Wrote local snapshot '%s' with %d members.", path, others.size());
+        } catch (final Exception e) {
+            log.warn("Failed to write the local snapshot '%s': %s", path, e);
+        }
+    }
+
+    /**
+     * Reads the member files of the cluster, adding the members to the responses as they are parsed.
+     *
+     * @return true if all member files were read successfully
+     */
+    protected boolean fetchMemberFiles(final List<Address> members, final String clustername, final Responses responses) {
+        final String clusterPrefix=getClusterPrefix(clustername);
+
+        if(log.isTraceEnabled())
+            log.trace("Getting entries for cluster '%s'.", clusterPrefix);
+
+        awaitInitialization();
+
+        if (cluster_snapshot && readClusterSnapshot(members, clustername, responses))
+            return true;
+
+        final ConcurrentFetch concurrentFetch = s3AsyncClient != null ? new ConcurrentFetch(members, clusterPrefix, responses) : null;
+        final Set<String> listedKeys = discoveryCache != null || unchanged_write_refresh_interval > 0 ? ConcurrentHashMap.newKeySet() : null;
+        try {
+            if (!listShards(clusterPrefix, concurrentFetch, listedKeys, members, responses)) {
+                return false;
+            }
+            if (concurrentFetch != null && !concurrentFetch.await()) {
+                return false;
+            }
+            if (discoveryCache != null) {
+                evictUnlisted(clusterPrefix, listedKeys);
+            }
+            if (listedKeys != null && members == null) {
+                forgetUnlistedUpload(clusterPrefix, listedKeys);
+            }
+            log.debug("Fetched update for member list in AWS S3 for cluster '%s'.", clusterPrefix);
+            return concurrentFetch == null || !concurrentFetch.failed;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while getting member list from AWS S3 for cluster '%s'.", clusterPrefix);
+        } catch (final Exception e) {
+            log.error(String.format("Failed getting member list from AWS S3 for cluster '%s'.", clusterPrefix), e);
+        } finally {
+            if (concurrentFetch != null) {
+                concurrentFetch.cancel();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lists the member files under the given prefix and fetches them, sequentially or using the given concurrent fetch.
+     *
+     * @param delimiter      delimiter to list only the objects directly under the prefix, or null to list all objects
+     * @param commonPrefixes collects the prefixes rolled up by the delimiter, or null
+     * @return false if the concurrent fetch timed out
+     */
+    protected boolean listAndFetch(final String prefix, final String delimiter, final Set<String> commonPrefixes, final String clusterPrefix,
+                                   final ConcurrentFetch concurrentFetch, final Set<String> listedKeys, final List<Address> members,
+                                   final Responses responses) throws InterruptedException {
+        // Pages are requested lazily by the paginator and handed over to the fetch stage one by one
+        ListObjectsV2Request listRequest = ListObjectsV2Request.builder().bucket(bucket_name).overrideConfiguration(requestOverride).prefix(prefix).delimiter(delimiter).maxKeys(list_page_size).build();
+        for (final ListObjectsV2Response page : s3Client.listObjectsV2Paginator(listRequest)) {
             if(log.isTraceEnabled())
-                log.trace("Got object listing, '%d' entries for cluster '%s'.", objects.contents().size(), clusterPrefix);
+                log.trace("Got object listing page, %d entries for prefix '%s'.", page.contents().size(), prefix);
+            if (commonPrefixes != null) {
+                page.commonPrefixes().forEach(commonPrefix -> commonPrefixes.add(commonPrefix.prefix()));
+            }
+
+            final Instant expiry = member_file_ttl > 0 ? getServerTime(page.sdkHttpResponse()).minusMillis(member_file_ttl) : null;
+            final List<S3Object> memberFiles = page.contents().stream()
+                    .filter(s3Object -> !isReservedKey(clusterPrefix, s3Object.key()))
+                    .filter(s3Object -> expiry == null || !isExpired(s3Object, expiry))
+                    .collect(Collectors.toList());
+            if (listedKeys != null) {
+                memberFiles.forEach(s3Object -> listedKeys.add(s3Object.key()));
+            }
+            if (concurrentFetch == null) {
+                fetchSequentially(memberFiles, members, responses);
+            } else if (!concurrentFetch.fetch(memberFiles)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the member file was not rewritten since the given expiry, in which case it is recorded for removal
+     * instead of being fetched.
+     */
+    protected boolean isExpired(final S3Object s3Object, final Instant expiry) {
+        return isExpired(s3Object.key(), s3Object.lastModified(), expiry);
+    }
+
+    /**
+     * @param response the response the object was fetched with, whose date is the current time of AWS S3
+     */
+    protected boolean isExpired(final String key, final Instant lastModified, final SdkHttpResponse response) {
+        return member_file_ttl > 0 && isExpired(key, lastModified, getServerTime(response).minusMillis(member_file_ttl));
+    }
+
+    protected boolean isExpired(final String key, final Instant lastModified, final Instant expiry) {
+        if (lastModified == null || !lastModified.isBefore(expiry))
+            return false;
+        if (log.isTraceEnabled())
+            log.trace("Skipping expired object '%s' last modified at %s.", key, lastModified);
+        expiredMemberFilesSkipped.increment();
+        expiredKeys.add(key);
+        return true;
+    }
+
+    /**
+     * @return the time of AWS S3 when it sent the response, so that the expiry of member files is not affected by the
+     *         clock skew of this host, or the local time if the response has no valid date header
+     */
+    protected static Instant getServerTime(final SdkHttpResponse response) {
+        final Instant date = response != null ? response.firstMatchingHeader("Date").map(S3_PING::parseHttpDate).orElse(null) : null;
+        return date != null ? date : Instant.now();
+    }
+
+    /**
+     * @return the instant of the given HTTP date header value, or null if it cannot be parsed
+     */
+    protected static Instant parseHttpDate(final String date) {
+        try {
+            return ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (final DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lists and fetches the member files in the flat layout, which are still written by members not using shards, and
+     * then those of all non-empty shards, concurrently if {@link #shard_count} is set. The shards are found by the
+     * common prefixes of the flat listing, so that a round costs one list request plus one per non-empty shard rather
+     * than one per shard, and reserved sub-prefixes such as the journal are never listed. Members without shards still
+     * list the shards, as other members might use them.
+     *
+     * @return false if the concurrent fetch timed out
+     */
+    protected boolean listShards(final String clusterPrefix, final ConcurrentFetch concurrentFetch, final Set<String> listedKeys,
+                                 final List<Address> members, final Responses responses) throws Exception {
+        final Set<String> commonPrefixes = new HashSet<>();
+        if (!listAndFetch(clusterPrefix, "/", commonPrefixes, clusterPrefix, concurrentFetch, listedKeys, members, responses))
+            return false;
+
+        final List<Callable<Boolean>> listings = new ArrayList<>(commonPrefixes.size());
+        // n.b. other members might use a different number of shards
+        for (int shard = 0; shard < MAX_SHARD_COUNT; shard++) {
+            final String shardPrefix = clusterPrefix + getShardName(shard) + "/";
+            if (commonPrefixes.contains(shardPrefix)) {
+                listings.add(() -> listAndFetch(shardPrefix, null, null, clusterPrefix, concurrentFetch, listedKeys, members, responses));
+            }
+        }
+
+        boolean complete = true;
+        if (shardListingExecutor == null) {
+            for (final Callable<Boolean> listing : listings) {
+                complete &= listing.call();
+            }
+            return complete;
+        }
+        for (final Future<Boolean> listing : shardListingExecutor.invokeAll(listings)) {
+            try {
+                complete &= listing.get();
+            } catch (final ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Fetches the given objects one after another using the synchronous client.
+     */
+    protected void fetchSequentially(final List<S3Object> objects, final List<Address> members, final Responses responses) {
+        for (final S3Object s3Object : objects) {
+            if (addCachedResponses(s3Object, members, responses)) {
+                continue;
+            }
+            if (s3Object.size() > 0) {
+                if (log.isTraceEnabled())
+                    log.trace("Fetching data for object '%s'.", s3Object.key());
+
+                GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(bucket_name).overrideConfiguration(requestOverride).key(s3Object.key()).build();
+                final MemberFile memberFile;
+                try {
+                    memberFile = s3Client.getObject(getObjectRequest, this::readMemberFile);
+                } catch (final NoSuchKeyException e) {
+                    // n.b. removed since it was listed, e.g. as its member left during a view change
+                    log.debug("Object '%s' was removed from AWS S3 before it could be fetched.", s3Object.key());
+                    continue;
+                }
+                cacheMemberList(s3Object.key(), memberFile.response().eTag(), memberFile.data());
+                addResponses(s3Object.key(), memberFile.data(), members, responses);
+            } else {
+                if (log.isTraceEnabled())
+                    log.trace("Skipping empty object '%s'.", s3Object.key());
+            }
+        }
+    }
+
+    /**
+     * A single discovery round fetching objects using the asynchronous client with at most
+     * {@link #max_concurrent_fetches} requests in flight. Each object is parsed and added to the responses as soon as
+     * it arrives, so that a waiting joiner can proceed once the coordinator has been found. Objects can be submitted
+     * page by page while the listing is still in progress; the round ends after {@link #fetch_timeout} at the latest.
+     */
+    protected class ConcurrentFetch {
+        protected final Semaphore permits = new Semaphore(max_concurrent_fetches);
+        protected final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+        protected final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetch_timeout);
+        protected final List<Address> members;
+        protected final String clusterPrefix;
+        protected final Responses responses;
+        protected volatile boolean failed;
+
+        protected ConcurrentFetch(final List<Address> members, final String clusterPrefix, final Responses responses) {
+            this.members = members;
+            this.clusterPrefix = clusterPrefix;
+            this.responses = responses;
+        }
+
+        /**
+         * Submits the given objects for fetching, blocking while the maximum number of requests is in flight.
+         *
+         * @return false if the deadline elapsed before all objects could be submitted
+         */
+        protected boolean fetch(final List<S3Object> objects) throws InterruptedException {
+            for (final S3Object s3Object : objects) {
+                if (addCachedResponses(s3Object, members, responses)) {
+                    continue;
+                }
+                if (s3Object.size() == 0) {
+                    if (log.isTraceEnabled())
+                        log.trace("Skipping empty object '%s'.", s3Object.key());
+                    continue;
+                }
+                if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    logTimeout();
+                    return false;
+                }
+
+                if (log.isTraceEnabled())
+                    log.trace("Fetching data for object '%s'.", s3Object.key());
+
+                GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(bucket_name).overrideConfiguration(requestOverride).key(s3Object.key()).build();
+                CompletableFuture<MemberFile> future = getMemberFileAsync(getObjectRequest);
+                inFlight.add(future);
+                future.whenComplete((memberFile, throwable) -> {
+                    inFlight.remove(future);
+                    permits.release();
+                    final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                    if (throwable == null) {
+                        cacheMemberList(s3Object.key(), memberFile.response().eTag(), memberFile.data());
+                        addResponses(s3Object.key(), memberFile.data(), members, responses);
+                    } else if (cause instanceof NoSuchKeyException) {
+                        // n.b. removed since it was listed, e.g. as its member left during a view change
+                        log.debug("Object '%s' was removed from AWS S3 before it could be fetched.", s3Object.key());
+                    } else if (!future.isCancelled()) {
+                        failed = true;
+                        log.error(String.format("Failed fetching object '%s' from AWS S3.", s3Object.key()), cause);
+                    }
+                });
+            }
+            return true;
+        }
+
+        /**
+         * Waits for the requests still in flight by reclaiming all permits.
+         *
+         * @return false if the deadline elapsed before all requests completed
+         */
+        protected boolean await() throws InterruptedException {
+            if (!permits.tryAcquire(max_concurrent_fetches, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                logTimeout();
+                return false;
+            }
+            return true;
+        }
+
+        protected void cancel() {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+
+        protected void logTimeout() {
+            log.warn("Timed out after %d ms fetching member list from AWS S3 for cluster '%s'.", fetch_timeout, clusterPrefix);
+        }
+    }
+
+    /**
+     * Adds the cached member list of the given object to the responses if the object did not change since it was
+     * last fetched.
+     *
+     * @return true if the object was served from the cache and does not need to be fetched
+     */
+    protected boolean addCachedResponses(final S3Object s3Object, final List<Address> members, final Responses responses) {
+        if (discoveryCache == null || s3Object.eTag() == null)
+            return false;
+
+        final CachedMemberList cached = discoveryCache.get(s3Object.key());
+        if (cached == null || !cached.eTag().equals(s3Object.eTag()))
+            return false;
+
+        if (log.isTraceEnabled())
+            log.trace("Using cached data for unchanged object '%s' with ETag %s.", s3Object.key(), cached.eTag());
+
+        addResponses(s3Object.key(), cached.data(), members, responses);
+        return true;
+    }
+
+    /**
+     * Forgets the uploaded digest of the member file of this member if a complete listing of the cluster did not
+     * contain it, e.g. as the coordinator removed all member files on a view change or removed it as expired, so that
+     * its next write is not skipped as unchanged.
+     */
+    protected void forgetUnlistedUpload(final String clusterPrefix, final Set<String> listedKeys) {
+        if (local_addr == null)
+            return;
+        final String key = getMemberKey(clusterPrefix, local_addr);
+        if (!listedKeys.contains(key) && uploadedDigests.remove(key) != null)
+            log.debug("Member file '%s' of this member is missing, it will be written again.", key);
+    }
+
+    protected void cacheMemberList(final String key, final String eTag, final List<PingData> data) {
+        if (discoveryCache != null && eTag != null) {
+            discoveryCache.put(key, new CachedMemberList(eTag, data));
+        }
+    }
+
+    /**
+     * Evicts the cached entries of the given cluster whose objects were no longer present in a complete listing.
+     */
+    protected void evictUnlisted(final String clusterPrefix, final Set<String> listedKeys) {
+        synchronized (discoveryCache) {
+            discoveryCache.keySet().removeIf(key -> key.startsWith(clusterPrefix) && !listedKeys.contains(key));
+        }
+    }
+
+    /**
+     * Adds the member list parsed from a single object to the responses and to the discovery caches.
+     */
+    protected void addResponses(final String key, final List<PingData> data, final List<Address> members, final Responses responses) {
+        if (data == null) {
+            log.debug("Fetched member list in AWS S3 '%s' is empty.", key);
+            return;
+        }
+        for (final PingData pingData : data) {
+            if (members == null || members.contains(pingData.getAddress())) {
+                responses.addResponse(pingData, pingData.isCoord());
+                if (log.isTraceEnabled())
+                    log.trace("Added member '%s', members '%s'.", pingData, members != null);
+            }
+            if (local_addr != null && !local_addr.equals(pingData.getAddress())) {
+                addDiscoveryResponseToCaches(pingData.getAddress(), pingData.getLogicalName(), pingData.getPhysicalAddr());
+                if (log.isTraceEnabled()) {
+                    log.trace("Added possible member '%s' with local address '%s'.", pingData, local_addr);
+                }
+            }
+            if (log.isTraceEnabled())
+                log.trace("Processed entry in AWS S3: '%s' -> '%s'.", key, pingData);
+        }
+    }
+
+    @Override
+    protected void write(final List<PingData> list, final String clustername) {
+        final String clusterPrefix = getClusterPrefix(clustername);
+        final String key = getMemberKey(clusterPrefix, local_addr);
+
+        final byte[] data;
+        try {
+            data = serialize(list);
+        } catch (final Exception e) {
+            log.error(String.format("Failed to update member list in AWS S3 in '%s'.", key), e);
+            return;
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("New AWS S3 file content (%d bytes) for '%s' -> '%s'%s", data.length, key, list, binary_format ? "." : ": " + new String(data));
+        }
+
+        scheduleUpload(key, data);
+        if (shared_discovery_ttl > 0) {
+            // n.b. other instances in this JVM should not wait for the cached read to expire to see this member
+            sharedDiscoveryCache.invalidate(getSharedDiscoveryPrefix(clustername));
+        }
+        if (member_file_ttl > 0) {
+            ownMemberFile = new MemberFileContent(key, data);
+        }
+        if (journal && !Arrays.equals(journaledData.put(clusterPrefix, data), data)) {
+            appendJournalEntry(clusterPrefix, addressAsString(local_addr), data);
+        }
+
+        if (shard_count > 0) {
+            removeFlatMemberFile(clusterPrefix + addressToFilename(local_addr));
+        }
+
+        if (cluster_snapshot && isCompleteMemberList(list)) {
+            clusterSnapshotData = data;
+            scheduleUpload(getClusterSnapshotKey(clustername), data);
+        }
+    }
+
+    /**
+     * Uploads the given data, or, if {@link #write_coalescing_delay} is set, records it as the latest state of the key
+     * to be uploaded once the delay elapses. Writes to the same key within the delay are coalesced into a single upload.
+     */
+    protected void scheduleUpload(final String key, final byte[] data) {
+        if (write_coalescing_delay <= 0) {
+            execute(key, () -> upload(key, data));
+            return;
+        }
+        if (pendingWrites.put(key, data) == null) {
+            timer.schedule(() -> uploadPending(key), write_coalescing_delay, TimeUnit.MILLISECONDS);
+        } else if (log.isTraceEnabled()) {
+            log.trace("Coalescing write of '%s' with a pending write.", key);
+        }
+    }
+
+    protected void uploadPending(final String key) {
+        final byte[] data = pendingWrites.remove(key);
+        if (data != null) {
+            execute(key, () -> upload(key, data));
+        }
+    }
+
+    /**
+     * Runs the given write operation on the background writer if asynchronous writes are enabled, replacing any
+     * operation on the same key still waiting there, or on the calling thread otherwise.
+     */
+    protected void execute(final String key, final Runnable operation) {
+        final BackgroundWriter writer = backgroundWriter;
+        if (writer == null || !writer.submit(key, operation)) {
+            operation.run();
+        }
+    }
+
+    /**
+     * Uploads the given data unless the same content was already uploaded to the key within
+     * {@link #unchanged_write_refresh_interval}.
+     */
+    protected void upload(final String key, final byte[] data) {
+        upload(key, data, false);
+    }
+
+    /**
+     * @param force whether to upload the data even if it is unchanged, e.g. to refresh its last modified time
+     */
+    protected void upload(final String key, final byte[] data, final boolean force) {
+        final byte[] digest = digest(data);
+        final UploadedDigest uploaded = uploadedDigests.get(key);
+        if (!force && uploaded != null && Arrays.equals(uploaded.digest(), digest)
+                && System.nanoTime() - uploaded.timestamp() < TimeUnit.MILLISECONDS.toNanos(unchanged_write_refresh_interval)) {
+            if (log.isTraceEnabled())
+                log.trace("Skipping write of unchanged content to '%s'.", key);
+            return;
+        }
+
+        try {
+            putObject(key, data);
+            if (digest != null) {
+                uploadedDigests.put(key, new UploadedDigest(digest, System.nanoTime()));
+            }
+            log.debug("Wrote member list to AWS S3: '%s' (%d bytes).", key, data.length);
+        } catch (final Exception e) {
+            uploadedDigests.remove(key);
+            log.error(String.format("Failed to update member list in AWS S3 in '%s'.", key), e);
+        }
+    }
+
+    /**
+     * Rewrites the member file of this member so that it does not expire while the member is alive.
+     */
+    protected void rewriteMemberFile() {
+        final MemberFileContent content = ownMemberFile;
+        if (content == null)
+            return;
+        if (log.isTraceEnabled())
+            log.trace("Rewriting member file '%s'.", content.key());
+        // n.b. forced past change detection, as refreshing the last modified time is the purpose of the rewrite
+        execute(content.key(), () -> upload(content.key(), content.data(), true));
+    }
+
+    /**
+     * Removes the expired member files seen by the discovery rounds since the last sweep, if this member is the
+     * coordinator, so that each file is removed by a single member. At most {@link #MAX_KEYS_PER_DELETE} files are
+     * removed per sweep on a thread of minimum priority, and files of members in the current view are retained.
+     */
+    protected void sweepExpiredMemberFiles() {
+        if (expiredKeys.isEmpty() || !sweeping.compareAndSet(false, true))
+            return;
+        final List<String> keys = new ArrayList<>(expiredKeys);
+        expiredKeys.removeAll(keys);
+
+        final View currentView = view;
+        if (!is_coord || currentView == null || cluster_name == null) {
+            sweeping.set(false);
+            return;
+        }
+        final String clusterPrefix = getClusterPrefix(cluster_name);
+        final Set<String> liveKeys = currentView.getMembers().stream()
+                .flatMap(member -> getMemberKeys(clusterPrefix, member).stream())
+                .collect(Collectors.toSet());
+        final List<String> expired = keys.stream()
+                .filter(key -> key.startsWith(clusterPrefix) && !liveKeys.contains(key))
+                .limit(MAX_KEYS_PER_DELETE)
+                .collect(Collectors.toList());
+        if (expired.isEmpty()) {
+            sweeping.set(false);
+            return;
+        }
+
+        final Thread sweeper = getTransport().getThreadFactory().newThread(() -> {
+            try {
+                log.debug("Removing %d expired member files from AWS S3 for cluster '%s'.", expired.size(), clusterPrefix);
+                deleteObjects(expired);
+                expiredMemberFilesRemoved.add(expired.size());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                sweeping.set(false);
+            }
+        }, "S3_PING-sweeper");
+        sweeper.setPriority(Thread.MIN_PRIORITY);
+        sweeper.start();
+    }
+
+    /**
+     * Forgets pending writes and uploaded digests of the matching keys, so that a removed object is neither resurrected by
+     * a pending write nor considered unchanged on the next write.
+     */
+    protected void forgetWrites(final Predicate<String> keys) {
+        pendingWrites.keySet().removeIf(keys);
+        final BackgroundWriter writer = backgroundWriter;
+        if (writer != null) {
+            writer.cancel(keys);
+        }
+        forgetUploads(keys);
+    }
+
+    /**
+     * Forgets the uploaded digests of the matching keys once their objects have been removed.
+     */
+    protected void forgetUploads(final Predicate<String> keys) {
+        uploadedDigests.keySet().removeIf(keys);
+    }
+
+    /**
+     * @return the SHA-256 digest of the data, or null if change detection is disabled
+     */
+    protected byte[] digest(final byte[] data) {
+        if (unchanged_write_refresh_interval <= 0)
+            return null;
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (final NoSuchAlgorithmException e) {
+            // n.b. every Java platform implementation is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Serializes the list in the binary format if {@link #binary_format} is enabled, or in the text format of
+     * {@link FILE_PING} otherwise. The binary format consists of {@link #BINARY_FORMAT_MAGIC}, a version and a flags
+     * byte, followed by the optionally deflated number of entries and the {@link PingData} entries in their streamable
+     * form.
+     */
+    protected byte[] serialize(final List<PingData> list) throws Exception {
+        return serialize(list, binary_format);
+    }
+
+    protected byte[] serialize(final List<PingData> list, final boolean binary) throws Exception {
+        if (binary && !compress) {
+            return serializeUncompressed(list);
+        }
+        // n.b. the size of the text and the compressed format is not known up front
+        final ByteArrayOutputStream outStream = new ByteArrayOutputStream(SERIALIZATION_BUFFER_SIZE);
+        if (!binary) {
+            this.write(list, outStream);
+            return outStream.toByteArray();
+        }
+
+        outStream.write(BINARY_FORMAT_MAGIC);
+        outStream.write(BINARY_FORMAT_VERSION);
+        outStream.write(compress ? BINARY_FORMAT_FLAG_COMPRESSED : 0);
+        // n.b. the native resources of a deflater passed to the stream are not released when the stream is closed
+        final Deflater deflater = compress ? new Deflater() : null;
+        try (DataOutputStream out = new DataOutputStream(deflater != null ? new DeflaterOutputStream(outStream, deflater) : outStream)) {
+            out.writeInt(list.size());
+            for (final PingData data : list) {
+                data.writeTo(out);
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        return outStream.toByteArray();
+    }
+
+    /**
+     * Serializes the list in the uncompressed binary format into a buffer of its exact size, which is returned as is.
+     */
+    protected byte[] serializeUncompressed(final List<PingData> list) throws Exception {
+        int size = BINARY_FORMAT_HEADER_SIZE + Integer.BYTES;
+        for (final PingData data : list) {
+            size += data.serializedSize();
+        }
+        final ByteArrayDataOutputStream out = new ByteArrayDataOutputStream(size);
+        out.write(BINARY_FORMAT_MAGIC);
+        out.write(BINARY_FORMAT_VERSION);
+        out.write(0);
+        out.writeInt(list.size());
+        for (final PingData data : list) {
+            data.writeTo(out);
+        }
+        final byte[] buffer = out.buffer();
+        return out.position() == buffer.length ? buffer : Arrays.copyOf(buffer, out.position());
+    }
+
+    /**
+     * Parses a member list in either the binary or the text format.
+     *
+     * @return the parsed list, or null if the input is empty or cannot be parsed
+     */
+    protected List<PingData> parse(final InputStream inputStream) {
+        // n.b. only the header is pushed back, so that a response stream is parsed without buffering it first
+        final PushbackInputStream in = new PushbackInputStream(inputStream, BINARY_FORMAT_HEADER_SIZE);
+        try {
+            final byte[] header = in.readNBytes(BINARY_FORMAT_HEADER_SIZE);
+            if (header.length < BINARY_FORMAT_HEADER_SIZE || !Arrays.equals(header, 0, BINARY_FORMAT_MAGIC.length, BINARY_FORMAT_MAGIC, 0, BINARY_FORMAT_MAGIC.length)) {
+                in.unread(header);
+                return this.read(in);
+            }
+
+            final byte version = header[BINARY_FORMAT_MAGIC.length];
+            if (version != BINARY_FORMAT_VERSION) {
+                log.warn("Unsupported member list format version %d.", version);
+                return null;
+            }
+            final boolean compressed = (header[BINARY_FORMAT_MAGIC.length + 1] & BINARY_FORMAT_FLAG_COMPRESSED) != 0;
+            try (DataInputStream dataIn = new DataInputStream(compressed ? new InflaterInputStream(in) : in)) {
+                final int size = dataIn.readInt();
+                if (size == 0)
+                    return null;
+                if (size < 0 || size > BINARY_FORMAT_MAX_ENTRIES) {
+                    log.warn("Invalid number of member list entries %d.", size);
+                    return null;
+                }
+                // n.b. not presized from the untrusted count, the entries themselves must be read first
+                final List<PingData> list = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    final PingData data = new PingData();
+                    data.readFrom(dataIn);
+                    list.add(data);
+                }
+                return list;
+            }
+        } catch (final Exception e) {
+            log.error("Failed parsing member list.", e);
+            return null;
+        } finally {
+            Util.close(in);
+        }
+    }
+
+    protected void putObject(final String key, final byte[] data) {
+        awaitInitialization();
+
+        final String contentType = binary_format ? BINARY_SERIALIZED_CONTENT_TYPE : SERIALIZED_CONTENT_TYPE;
+        PutObjectRequest.Builder putRequestBuilder = PutObjectRequest.builder()
+                .bucket(bucket_name)
+                .overrideConfiguration(requestOverride)
+                .key(key)
+                .contentType(contentType);
+
+        if (acl_grant_bucket_owner_full_control) {
+            putRequestBuilder.acl(ObjectCannedACL.BUCKET_OWNER_FULL_CONTROL);
+        }
+
+        if (isDefined(kms_key_id)) {
+            putRequestBuilder.serverSideEncryption(ServerSideEncryption.AWS_KMS);
+            putRequestBuilder.ssekmsKeyId(kms_key_id);
+        }
+
+        // n.b. streams the serialized data as is, unlike RequestBody.fromBytes() which copies it first
+        RequestBody requestBody = RequestBody.fromContentProvider(() -> new ByteArrayInputStream(data), data.length, contentType);
+        s3Client.putObject(putRequestBuilder.build(), requestBody);
+    }
+
+    /**
+     * Whether the given list written by this member holds the data of all members of the current view, which is the
+     * case when the coordinator writes the contents of its discovery cache.
+     */
+    protected boolean isCompleteMemberList(final List<PingData> list) {
+        final View currentView = view;
+        return is_coord && currentView != null && list.size() >= currentView.size();
+    }
+
+    /**
+     * Re-uploads the last cluster snapshot so that it does not exceed {@link #cluster_snapshot_max_age} while this
+     * member remains the coordinator.
+     */
+    protected void refreshClusterSnapshot() {
+        final byte[] data = clusterSnapshotData;
+        if (data == null || cluster_name == null)
+            return;
+        if (!is_coord) {
+            clusterSnapshotData = null;
+            return;
+        }
+
+        final String key = getClusterSnapshotKey(cluster_name);
+        try {
+            // n.b. bypasses change detection as the content is unchanged by design
+            putObject(key, data);
+            if (log.isTraceEnabled())
+                log.trace("Refreshed cluster snapshot '%s'.", key);
+        } catch (final Exception e) {
+            log.warn("Failed to refresh cluster snapshot '%s' in AWS S3: %s", key, e);
+        }
+    }
+
+    /**
+     * Whether the cluster snapshot was modified within {@link #cluster_snapshot_max_age} by the time of AWS S3, so that
+     * its age is not affected by the clock skew of this host.
+     */
+    protected boolean isFresh(final GetObjectResponse response) {
+        final Instant lastModified = response.lastModified();
+        return lastModified != null && !lastModified.isBefore(getServerTime(response.sdkHttpResponse()).minusMillis(cluster_snapshot_max_age));
+    }
+
+    /**
+     * Reads the cluster snapshot written by the coordinator and adds its contents to the responses.
+     *
+     * @return true if a fresh snapshot was found which contains a coordinator and all requested members, false if
+     *         the member files need to be scanned
+     */
+    protected boolean readClusterSnapshot(final List<Address> members, final String clustername, final Responses responses) {
+        final String key = getClusterSnapshotKey(clustername);
+        try {
+            GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(bucket_name).overrideConfiguration(requestOverride).key(key).build();
+            // n.b. a stale snapshot is not parsed at all, its response stream is closed unread by the client
+            final MemberFile snapshot = s3Client.getObject(getObjectRequest, (response, in) -> isFresh(response) ? readMemberFile(response, in) : new MemberFile(response, null));
+
+            if (!isFresh(snapshot.response())) {
+                log.debug("Cluster snapshot '%s' last modified at %s is stale, scanning member files.", key, snapshot.response().lastModified());
+                return false;
+            }
+
+            final String eTag = snapshot.response().eTag();
+            if (view == null && eTag != null && eTag.equals(usedClusterSnapshotETag)) {
+                log.debug("Cluster snapshot '%s' did not lead to a join, scanning member files.", key);
+                return false;
+            }
+
+            final List<PingData> data = snapshot.data();
+            if (data == null || data.stream().noneMatch(PingData::isCoord)) {
+                log.debug("Cluster snapshot '%s' does not contain a coordinator, scanning member files.", key);
+                return false;
+            }
+            if (members != null && !data.stream().map(PingData::getAddress).collect(Collectors.toSet()).containsAll(members)) {
+                log.debug("Cluster snapshot '%s' does not contain all requested members, scanning member files.", key);
+                return false;
+            }
 
-            for(final S3Object object : objects.contents()) {
+            addResponses(key, data, members, responses);
+            usedClusterSnapshotETag = eTag;
+            log.debug("Fetched member list from cluster snapshot in AWS S3 for cluster '%s'.", clustername);
+            return true;
+        } catch (final NoSuchKeyException e) {
+            log.debug("Cluster snapshot '%s' does not exist, scanning member files.", key);
+            return false;
+        } catch (final Exception e) {
+            log.warn("Failed reading cluster snapshot '%s' from AWS S3, scanning member files: %s", key, e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes the cluster snapshot written by this member while being the coordinator, possibly on the background
+     * writer, the way {@link #remove(String, Address)} removes its member file.
+     */
+    protected void removeClusterSnapshot(final String clustername) {
+        if (clustername == null)
+            return;
+        final String key = getClusterSnapshotKey(clustername);
+        forgetWrites(key::equals);
+        execute(key, () -> {
+            awaitInitialization();
+            try {
+                s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket_name).overrideConfiguration(requestOverride).key(key).build());
+                log.debug("Removed cluster snapshot '%s'.", key);
+            } catch (Exception e) {
+                log.warn("Failed to remove cluster snapshot '%s' from AWS S3: %s", key, e);
+            } finally {
+                forgetUploads(key::equals);
+            }
+        });
+    }
+
+    protected String getClusterSnapshotKey(final String clusterName) {
+        return getClusterPrefix(clusterName) + CLUSTER_SNAPSHOT_NAME;
+    }
+
+    /**
+     * Whether the given key under the cluster prefix is reserved for data other than member files.
+     */
+    protected static boolean isReservedKey(final String clusterPrefix, final String key) {
+        return key.startsWith(RESERVED_NAME_PREFIX, clusterPrefix.length());
+    }
+
+    @Override
+    protected void remove(final String clustername, final Address addr) {
+        if(clustername == null || addr == null)
+            return;
+        final List<String> keys=getMemberKeys(getClusterPrefix(clustername), addr);
+        final String key=keys.get(0);
+        forgetWrites(keys::contains);
+        if (journal) {
+            journalRemoval(getClusterPrefix(clustername), addr);
+        }
+        execute(key, () -> {
+            awaitInitialization();
+            try {
                 if(log.isTraceEnabled())
-                    log.trace("Fetching data for object '%s'.", object.key());
-                try {
-                    DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder().bucket(bucket_name).key(object.key()).build();
+                    log.trace("Removing key '%s'.", key);
+                if (keys.size() == 1) {
+                    DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder().bucket(bucket_name).overrideConfiguration(requestOverride).key(key).build();
                     s3Client.deleteObject(deleteObjectRequest);
-                    if(log.isTraceEnabled())
-                        log.trace("Removing '%s'.", object.key());
-                }
-                catch(Throwable t) {
-                    log.error("Failed deleting object '%s': %s", object.key(), t);
+                } else {
+                    deleteObjects(keys);
                 }
             }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch(Exception e) {
+                log.error(Util.getMessage("FailureRemovingData"), e);
+            }
+            finally {
+                // n.b. an upload might have completed while this removal was waiting
+                forgetUploads(keys::contains);
+            }
+        });
+    }
+
+    /**
+     * Removes the member file of this member in the flat layout, once after switching to the sharded layout, so that
+     * it is not discovered in addition to the sharded one.
+     */
+    protected void removeFlatMemberFile(final String key) {
+        if (!migratedKeys.add(key))
+            return;
+        execute(key, () -> {
+            awaitInitialization();
+            try {
+                s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket_name).overrideConfiguration(requestOverride).key(key).build());
+            } catch (Exception e) {
+                migratedKeys.remove(key);
+                log.debug("Failed to remove member file '%s' in the flat layout: %s", key, e);
+            }
+        });
+    }
+
+    @Override
+    protected void removeAll(String clustername) {
+        if(clustername == null)
+            return;
+
+        final String clusterPrefix=getClusterPrefix(clustername);
+        forgetWrites(key -> key.startsWith(clusterPrefix));
+        if (journal) {
+            // n.b. the next write of this member is journaled even if its content did not change
+            journaledData.remove(clusterPrefix);
+        }
+        // n.b. the cluster prefix itself is used as the key of this operation as it cannot be a member file key
+        execute(clusterPrefix, () -> {
+            removeAllObjects(clusterPrefix);
+            forgetUploads(key -> key.startsWith(clusterPrefix));
+            if (journal) {
+                // n.b. the removed member files are not journaled one by one, readers read all member files instead
+                appendJournalEntry(clusterPrefix, JOURNAL_RESET_NAME, new byte[0]);
+            }
+        });
+    }
+
+    protected void removeAllObjects(final String clusterPrefix) {
+        awaitInitialization();
+        try {
+            // n.b. each page is deleted before the next one is listed, the continuation token is not affected by it
+            final ListObjectsV2Request listRequest = ListObjectsV2Request.builder().bucket(bucket_name).overrideConfiguration(requestOverride).prefix(clusterPrefix).maxKeys(list_page_size).build();
+            for(final ListObjectsV2Response page : s3Client.listObjectsV2Paginator(listRequest)) {
+                if(log.isTraceEnabled())
+                    log.trace("Got object listing page, '%d' entries for cluster '%s'.", page.contents().size(), clusterPrefix);
+
+                deleteObjects(page.contents().stream().map(S3Object::key).collect(Collectors.toList()));
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while removing all objects from AWS S3 for cluster '%s'.", clusterPrefix);
         }
         catch(Exception ex) {
             log.error(Util.getMessage("FailedDeletingAllObjects"), ex);
         }
     }
 
+    /**
+     * Deletes the given keys using multi-object delete requests of up to {@link #MAX_KEYS_PER_DELETE} keys each. The
+     * requests are issued concurrently when the asynchronous client is available, waiting at most
+     * {@link #fetch_timeout} for them. Failures are logged per key.
+     */
+    protected void deleteObjects(final List<String> keys) throws InterruptedException {
+        if(keys.isEmpty())
+            return;
+        awaitInitialization();
+
+        final List<DeleteObjectsRequest> requests=new ArrayList<>();
+        for(int from=0; from < keys.size(); from+=MAX_KEYS_PER_DELETE) {
+            final List<ObjectIdentifier> objects=keys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, keys.size())).stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .collect(Collectors.toList());
+            requests.add(DeleteObjectsRequest.builder()
+                    .bucket(bucket_name)
+                    .overrideConfiguration(requestOverride)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build());
+        }
+
+        if(log.isTraceEnabled())
+            log.trace("Removing %d objects using %d requests.", keys.size(), requests.size());
+
+        if(s3AsyncClient == null) {
+            for(final DeleteObjectsRequest request : requests) {
+                try {
+                    logDeleteErrors(s3Client.deleteObjects(request));
+                }
+                catch(Exception e) {
+                    log.error(String.format("Failed deleting %d objects from AWS S3.", request.delete().objects().size()), e);
+                }
+            }
+            return;
+        }
+
+        final long deadline=System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetch_timeout);
+        final Semaphore permits=new Semaphore(max_concurrent_fetches);
+        final List<CompletableFuture<DeleteObjectsResponse>> pending=new ArrayList<>(requests.size());
+        for(final DeleteObjectsRequest request : requests) {
+            if(!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                abortDeletes(pending, keys.size());
+                return;
+            }
+            final CompletableFuture<DeleteObjectsResponse> future=s3AsyncClient.deleteObjects(request);
+            pending.add(future);
+            future.whenComplete((response, throwable) -> {
+                permits.release();
+                if(throwable == null)
+                    logDeleteErrors(response);
+                else if(!(throwable instanceof CancellationException))
+                    log.error(String.format("Failed deleting %d objects from AWS S3.", request.delete().objects().size()), throwable);
+            });
+        }
+        // Wait for the remaining requests by reclaiming all permits
+        if(!permits.tryAcquire(max_concurrent_fetches, deadline - System.nanoTime(), TimeUnit.NANOSECONDS))
+            abortDeletes(pending, keys.size());
+    }
+
+    protected void abortDeletes(final List<CompletableFuture<DeleteObjectsResponse>> pending, final int keys) {
+        log.warn("Timed out after %d ms removing %d objects from AWS S3, objects not removed yet are left behind.", fetch_timeout, keys);
+        pending.forEach(future -> future.cancel(true));
+    }
+
+    protected void logDeleteErrors(final DeleteObjectsResponse response) {
+        for(final S3Error error : response.errors()) {
+            log.error("Failed deleting object '%s': %s (%s)", error.key(), error.message(), error.code());
+        }
+    }
+
+    /**
+     * Performs write operations on a dedicated thread. Only the latest operation per object key is retained while
+     * waiting, and operations are performed in the order of their latest submission.
+     */
+    protected class BackgroundWriter implements Runnable {
+        // n.b. all fields are guarded by this
+        protected final Map<String, Runnable> operations = new LinkedHashMap<>();
+        protected boolean running = true;
+        protected boolean busy;
+
+        /**
+         * @return false if the operation was not accepted because the writer is full or stopped
+         */
+        protected synchronized boolean submit(final String key, final Runnable operation) {
+            if (!running)
+                return false;
+            if (operations.remove(key) == null && operations.size() >= async_write_queue_capacity) {
+                log.debug("Background writer is full, performing operation on '%s' on the calling thread.", key);
+                return false;
+            }
+            operations.put(key, operation);
+            notifyAll();
+            return true;
+        }
+
+        protected synchronized void cancel(final Predicate<String> keys) {
+            operations.keySet().removeIf(keys);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                final Runnable operation;
+                synchronized (this) {
+                    while (running && operations.isEmpty()) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    if (operations.isEmpty())
+                        return;
+
+                    final Iterator<Runnable> iterator = operations.values().iterator();
+                    operation = iterator.next();
+                    iterator.remove();
+                    busy = true;
+                }
+                try {
+                    operation.run();
+                } catch (Throwable t) {
+                    log.error("Failed performing AWS S3 operation in background writer.", t);
+                } finally {
+                    synchronized (this) {
+                        busy = false;
+                        notifyAll();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Stops accepting new operations and waits for the pending ones to complete.
+         *
+         * @return false if the pending operations did not complete within the timeout
+         */
+        protected synchronized boolean stop(final long timeout) throws InterruptedException {
+            running = false;
+            notifyAll();
+
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (busy || !operations.isEmpty()) {
+                final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    operations.clear();
+                    return false;
+                }
+                wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The configuration of an AWS S3 client which determines whether the client can be shared.
+     */
+    protected record ClientSettings(boolean async, String endpoint, String region, boolean pathStyleAccess, String httpClient,
+                                    int maxConnections, long connectionTimeout, long socketTimeout, long apiCallTimeout,
+                                    long apiCallAttemptTimeout, String retryMode, int maxAttempts, long slowCallThreshold,
+                                    int circuitBreakerFailureThreshold, long circuitBreakerMinBackoff, long circuitBreakerMaxBackoff) {
+    }
+
+    /**
+     * The key of an object, e.g. the circuit breaker, shared along with the AWS S3 clients with the given settings.
+     * Metrics are never shared, they are kept per protocol instance.
+     */
+    protected record SharedResourceKey(String name, ClientSettings clientSettings) {
+    }
+
+    /**
+     * A successfully discovered membership and the {@link System#nanoTime()} of its discovery.
+     */
+    protected record KnownMembership(List<PingData> members, long timestamp) {
+    }
+
+    /**
+     * The serialized content last written to the member file of this member.
+     */
+    protected record MemberFileContent(String key, byte[] data) {
+    }
+
+    /**
+     * The membership of a cluster read using the journal. Guarded by itself.
+     */
+    protected static class JournalState {
+        // n.b. keyed by the address as returned by addressAsString(), which is part of the journal keys
+        protected final Map<String, PingData> members = new LinkedHashMap<>();
+        // n.b. the keys read within the replay window
+        protected final NavigableSet<String> readKeys = new TreeSet<>();
+        // n.b. the latest timestamp of a read journal entry, or the time of the last full resync
+        protected long watermark;
+        protected long lastFullResync;
+        // n.b. incremented by each full resync
+        protected long generation;
+    }
+
+    /**
+     * Collects all members of a scan while adding those requested to the responses of a discovery round as they are
+     * read, so that the round does not wait for the scan to complete.
+     */
+    protected static class ForwardingResponses extends Responses {
+        protected final List<Address> members;
+        protected final Responses responses;
+
+        protected ForwardingResponses(final List<Address> members, final Responses responses) {
+            super(false);
+            this.members = members;
+            this.responses = responses;
+        }
+
+        @Override
+        public void addResponse(final PingData rsp, final boolean overwrite) {
+            super.addResponse(rsp, overwrite);
+            if (rsp != null && (members == null || members.contains(rsp.getAddress()))) {
+                responses.addResponse(rsp, overwrite);
+            }
+        }
+    }
+
+    /**
+     * A journal entry read from AWS S3; the data is null for a removal or if the entry was removed in the meantime.
+     */
+    protected record JournalEntry(String key, long timestamp, String member, boolean removal, List<PingData> data) {
+    }
+
+    /**
+     * The digest of the content last uploaded to an object and the {@link System#nanoTime()} of the upload.
+     */
+    protected record UploadedDigest(byte[] digest, long timestamp) {
+    }
+
+    /**
+     * A parsed member file together with the ETag of the object it was parsed from.
+     */
+    protected record CachedMemberList(String eTag, List<PingData> data) {
+    }
+
+    /**
+     * A member file parsed from the response of a get request; the data is null if the object is empty or cannot be
+     * parsed.
+     */
+    protected record MemberFile(GetObjectResponse response, List<PingData> data) {
+    }
+
+    /**
+     * A get request of a member file which is duplicated once if it did not complete within the hedge delay and a
+     * hedge credit is available. The first successful response completes the request and cancels the other one; the
+     * request fails once all of its attempts failed.
+     */
+    protected class HedgedGet {
+        protected final GetObjectRequest request;
+        protected final CompletableFuture<MemberFile> result = new CompletableFuture<>();
+        protected final Set<CompletableFuture<MemberFile>> attempts = ConcurrentHashMap.newKeySet();
+        protected final AtomicInteger outstanding = new AtomicInteger();
+        protected final AtomicBoolean hedged = new AtomicBoolean();
+
+        protected HedgedGet(final GetObjectRequest request) {
+            this.request = request;
+        }
+
+        protected CompletableFuture<MemberFile> start(final long delay) {
+            send(false);
+            final Future<?> hedge = timer.schedule(this::hedge, delay, TimeUnit.MILLISECONDS);
+            result.whenComplete((memberFile, throwable) -> {
+                hedge.cancel(false);
+                attempts.forEach(attempt -> attempt.cancel(true));
+            });
+            return result;
+        }
+
+        protected void hedge() {
+            if (result.isDone() || !hedged.compareAndSet(false, true))
+                return;
+            if (!acquireHedgeCredit()) {
+                if (log.isTraceEnabled())
+                    log.trace("Not hedging get request of '%s', the hedge budget is exhausted.", request.key());
+                return;
+            }
+            if (log.isTraceEnabled())
+                log.trace("Hedging get request of '%s'.", request.key());
+            hedgedRequests.increment();
+            send(true);
+        }
+
+        protected void send(final boolean hedge) {
+            outstanding.incrementAndGet();
+            final CompletableFuture<MemberFile> attempt = s3AsyncClient.getObject(request, new MemberFileTransformer());
+            attempts.add(attempt);
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+            attempt.whenComplete((memberFile, throwable) -> {
+                if (throwable == null) {
+                    if (result.complete(memberFile) && hedge) {
+                        hedgedRequestWins.increment();
+                    }
+                } else if (outstanding.decrementAndGet() == 0) {
+                    // n.b. no request is hedged once the last attempt failed, e.g. as the object does not exist
+                    hedged.set(true);
+                    result.completeExceptionally(throwable);
+                }
+            });
+        }
+    }
+
+    /**
+     * Parses a member file from the buffers published by the asynchronous client, without first aggregating them into
+     * a single byte array as {@link AsyncResponseTransformer#toBytes()} does.
+     */
+    protected class MemberFileTransformer implements AsyncResponseTransformer<GetObjectResponse, MemberFile> {
+        private volatile CompletableFuture<MemberFile> future;
+        private volatile GetObjectResponse response;
+
+        @Override
+        public CompletableFuture<MemberFile> prepare() {
+            // n.b. called again for each retry attempt
+            future = new CompletableFuture<>();
+            return future;
+        }
+
+        @Override
+        public void onResponse(final GetObjectResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void onStream(final SdkPublisher<ByteBuffer> publisher) {
+            final CompletableFuture<MemberFile> result = future;
+            final List<ByteBuffer> buffers = new ArrayList<>();
+            publisher.subscribe(buffers::add).whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(new MemberFile(response, parse(new ByteBuffersInputStream(buffers))));
+                }
+            });
+        }
+
+        @Override
+        public void exceptionOccurred(final Throwable error) {
+            future.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Reads the remaining bytes of a list of buffers in order.
+     */
+    protected static final class ByteBuffersInputStream extends InputStream {
+        private final Iterator<ByteBuffer> buffers;
+        private ByteBuffer current = ByteBuffer.allocate(0);
+
+        protected ByteBuffersInputStream(final List<ByteBuffer> buffers) {
+            this.buffers = buffers.iterator();
+        }
+
+        private boolean advance() {
+            while (!current.hasRemaining()) {
+                if (!buffers.hasNext())
+                    return false;
+                current = buffers.next();
+            }
+            return true;
+        }
+
+        @Override
+        public int read() {
+            return advance() ? current.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0)
+                return 0;
+            if (!advance())
+                return -1;
+            final int n = Math.min(len, current.remaining());
+            current.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return current.remaining();
+        }
+    }
+
     private static boolean isDefined(String s) {
         return (s != null && !s.trim().isEmpty());
     }
@@ -0,0 +1,607 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal in-JVM AWS S3 compatible endpoint supporting the path-style requests issued by {@link S3_PING}: bucket
+ * head and creation, ListObjectsV2, and object get, conditional get, head, put, delete and multi-object delete. Request latency,
+ * throttling and errors can be injected to emulate a remote endpoint, and requests are counted per operation, so that
+ * tests and benchmarks need neither network access nor a container runtime.
+ *
+ * @see #start()
+ */
+public class EmbeddedS3Server implements AutoCloseable {
+
+    private static final String NAMESPACE = "http://s3.amazonaws.com/doc/2006-03-01/";
+    private static final Pattern DELETE_KEY_PATTERN = Pattern.compile("<Key>(.*?)</Key>", Pattern.DOTALL);
+
+    private final ConcurrentMap<String, NavigableMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile long latencyMillis;
+    private final Map<Operation, LongAdder> requests = new EnumMap<>(Operation.class);
+    private final LongAdder throttled = new LongAdder();
+    private final Map<Operation, InjectedError> errors = new ConcurrentHashMap<>();
+    private final Map<Operation, InjectedDelay> delays = new ConcurrentHashMap<>();
+    // n.b. guarded by this
+    private int requestRateLimit;
+    private long rateLimitWindow;
+    private int rateLimitWindowRequests;
+
+    /**
+     * The operations by which requests are counted and errors are injected.
+     */
+    public enum Operation {
+        BUCKET, LIST, GET, HEAD, PUT, DELETE, DELETE_OBJECTS
+    }
+
+    private EmbeddedS3Server(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+        for (Operation operation : Operation.values()) {
+            requests.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Starts a new server on an ephemeral port of the loopback interface.
+     */
+    public static EmbeddedS3Server start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        ExecutorService executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "embedded-s3");
+            thread.setDaemon(true);
+            return thread;
+        });
+        EmbeddedS3Server s3 = new EmbeddedS3Server(server, executor);
+        server.setExecutor(executor);
+        server.createContext("/", s3::handle);
+        server.start();
+        return s3;
+    }
+
+    /**
+     * @return the endpoint to configure in the AWS S3 client, which must use path-style access
+     */
+    public URI getEndpoint() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    /**
+     * Sets the latency added to each request before it is processed.
+     */
+    public EmbeddedS3Server setLatency(long latency, TimeUnit unit) {
+        this.latencyMillis = unit.toMillis(latency);
+        return this;
+    }
+
+    /**
+     * Adds the given latency to the next requests of the given operation only, e.g. to emulate a slow response which
+     * is overtaken by a retried or hedged request.
+     */
+    public EmbeddedS3Server delayNext(Operation operation, int requests, long latency, TimeUnit unit) {
+        delays.put(operation, new InjectedDelay(requests, unit.toMillis(latency)));
+        return this;
+    }
+
+    /**
+     * Limits the number of requests per second; requests exceeding the limit are rejected with a 503 SlowDown error,
+     * like AWS S3 does when the request rate of a prefix is exceeded.
+     *
+     * @param requestsPerSecond the limit, or 0 for no limit
+     */
+    public synchronized EmbeddedS3Server setRequestRateLimit(int requestsPerSecond) {
+        this.requestRateLimit = requestsPerSecond;
+        this.rateLimitWindowRequests = 0;
+        return this;
+    }
+
+    /**
+     * Fails the given fraction of the requests of an operation with the given status and error code.
+     *
+     * @param probability the fraction of requests to fail between 0 and 1, or 0 to stop injecting errors
+     */
+    public EmbeddedS3Server injectErrors(Operation operation, double probability, int status, String code) {
+        if (probability <= 0) {
+            errors.remove(operation);
+        } else {
+            errors.put(operation, new InjectedError(probability, status, code));
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of requests received for the operation, including rejected ones
+     */
+    public long getRequestCount(Operation operation) {
+        return requests.get(operation).sum();
+    }
+
+    /**
+     * @return the number of requests received for all operations, including rejected ones
+     */
+    public long getRequestCount() {
+        return requests.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * @return the number of requests rejected due to the request rate limit
+     */
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    /**
+     * Resets the request counters.
+     */
+    public void resetCounts() {
+        requests.values().forEach(LongAdder::reset);
+        throttled.reset();
+    }
+
+    public EmbeddedS3Server createBucket(String bucket) {
+        buckets.computeIfAbsent(bucket, name -> new ConcurrentSkipListMap<>());
+        return this;
+    }
+
+    /**
+     * Stores an object directly, bypassing the HTTP endpoint and the injected latency.
+     */
+    public void putObject(String bucket, String key, byte[] data) {
+        putObject(bucket, key, data, Instant.now());
+    }
+
+    /**
+     * Stores an object directly as if it had been last modified at the given time, e.g. by a member which crashed.
+     */
+    public void putObject(String bucket, String key, byte[] data, Instant lastModified) {
+        createBucket(bucket);
+        buckets.get(bucket).put(key, new StoredObject(data, lastModified));
+    }
+
+    /**
+     * @return the data of the object, or null if it does not exist
+     */
+    public byte[] getObject(String bucket, String key) {
+        NavigableMap<String, StoredObject> objects = buckets.get(bucket);
+        StoredObject object = objects == null ? null : objects.get(key);
+        return object == null ? null : object.data;
+    }
+
+    /**
+     * Removes an object directly, bypassing the HTTP endpoint, e.g. as if it had been removed by another member.
+     */
+    public void deleteObject(String bucket, String key) {
+        NavigableMap<String, StoredObject> objects = buckets.get(bucket);
+        if (objects != null) {
+            objects.remove(key);
+        }
+    }
+
+    /**
+     * @return the number of objects in the bucket whose keys start with the given prefix
+     */
+    public int countObjects(String bucket, String prefix) {
+        NavigableMap<String, StoredObject> objects = buckets.get(bucket);
+        return objects == null ? 0 : (int) objects.keySet().stream().filter(key -> key.startsWith(prefix)).count();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            long latency = latencyMillis;
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+
+            String path = decode(exchange.getRequestURI().getRawPath());
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            int separator = path.indexOf('/', 1);
+            String bucket = separator < 0 ? path.substring(1) : path.substring(1, separator);
+            String key = separator < 0 || separator == path.length() - 1 ? null : path.substring(separator + 1);
+
+            NavigableMap<String, StoredObject> objects = buckets.get(bucket);
+            String method = exchange.getRequestMethod();
+
+            Operation operation = operation(method, key, query);
+            requests.get(operation).increment();
+            InjectedDelay delay = delays.get(operation);
+            if (delay != null && delay.remaining.getAndDecrement() > 0) {
+                Thread.sleep(delay.latencyMillis);
+            }
+            if (!acquireRequestPermit()) {
+                throttled.increment();
+                sendError(exchange, 503, "SlowDown", key != null ? key : bucket);
+                return;
+            }
+            InjectedError error = errors.get(operation);
+            if (error != null && ThreadLocalRandom.current().nextDouble() < error.probability) {
+                sendError(exchange, error.status, error.code, key != null ? key : bucket);
+                return;
+            }
+
+            if (key == null) {
+                if (method.equals("PUT")) {
+                    createBucket(bucket);
+                    sendEmpty(exchange, 200);
+                } else if (objects == null) {
+                    sendError(exchange, 404, "NoSuchBucket", bucket);
+                } else if (method.equals("HEAD")) {
+                    sendEmpty(exchange, 200);
+                } else if (method.equals("GET") && "2".equals(query.get("list-type"))) {
+                    listObjectsV2(exchange, bucket, objects, query);
+                } else if (method.equals("POST") && query.containsKey("delete")) {
+                    deleteObjects(exchange, objects);
+                } else {
+                    sendError(exchange, 501, "NotImplemented", bucket);
+                }
+                return;
+            }
+
+            if (objects == null) {
+                sendError(exchange, 404, "NoSuchBucket", bucket);
+                return;
+            }
+
+            switch (method) {
+                case "PUT": {
+                    byte[] data = readBody(exchange);
+                    StoredObject object = new StoredObject(data, Instant.now());
+                    objects.put(key, object);
+                    exchange.getResponseHeaders().set("ETag", object.eTag);
+                    sendEmpty(exchange, 200);
+                    break;
+                }
+                case "GET":
+                case "HEAD": {
+                    StoredObject object = objects.get(key);
+                    if (object == null) {
+                        if (method.equals("HEAD")) {
+                            sendEmpty(exchange, 404);
+                        } else {
+                            sendError(exchange, 404, "NoSuchKey", key);
+                        }
+                        return;
+                    }
+                    exchange.getResponseHeaders().set("ETag", object.eTag);
+                    exchange.getResponseHeaders().set("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(object.lastModified.atZone(ZoneOffset.UTC)));
+                    if (object.eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                        sendEmpty(exchange, 304);
+                        return;
+                    }
+                    exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+                    if (method.equals("HEAD")) {
+                        exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.data.length));
+                        exchange.sendResponseHeaders(200, -1);
+                    } else {
+                        send(exchange, 200, object.data);
+                    }
+                    break;
+                }
+                case "DELETE":
+                    objects.remove(key);
+                    sendEmpty(exchange, 204);
+                    break;
+                default:
+                    sendError(exchange, 501, "NotImplemented", key);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Operation operation(String method, String key, Map<String, String> query) {
+        if (key == null) {
+            if (method.equals("GET") && "2".equals(query.get("list-type"))) return Operation.LIST;
+            if (method.equals("POST") && query.containsKey("delete")) return Operation.DELETE_OBJECTS;
+            return Operation.BUCKET;
+        }
+        switch (method) {
+            case "GET": return Operation.GET;
+            case "HEAD": return Operation.HEAD;
+            case "DELETE": return Operation.DELETE;
+            default: return Operation.PUT;
+        }
+    }
+
+    /**
+     * @return false if the request exceeds the request rate limit of the current one second window
+     */
+    private synchronized boolean acquireRequestPermit() {
+        if (requestRateLimit <= 0) return true;
+        long window = System.nanoTime() / TimeUnit.SECONDS.toNanos(1);
+        if (window != rateLimitWindow) {
+            rateLimitWindow = window;
+            rateLimitWindowRequests = 0;
+        }
+        return ++rateLimitWindowRequests <= requestRateLimit;
+    }
+
+    private void listObjectsV2(HttpExchange exchange, String bucket, NavigableMap<String, StoredObject> objects, Map<String, String> query) throws IOException {
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.get("delimiter");
+        String startAfter = query.get("start-after");
+        String continuationToken = query.get("continuation-token");
+        int maxKeys = query.containsKey("max-keys") ? Integer.parseInt(query.get("max-keys")) : 1000;
+        boolean urlEncoding = "url".equals(query.get("encoding-type"));
+
+        String after = continuationToken != null
+                ? new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8)
+                : startAfter;
+        NavigableMap<String, StoredObject> candidates = after == null ? objects.tailMap(prefix, true) : objects.tailMap(after, false);
+
+        StringBuilder contents = new StringBuilder();
+        StringBuilder commonPrefixes = new StringBuilder();
+        String lastCommonPrefix = after != null && delimiter != null && after.endsWith(delimiter) ? after : null;
+        String last = null;
+        int count = 0;
+        boolean truncated = false;
+
+        for (Map.Entry<String, StoredObject> entry : candidates.entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                if (key.compareTo(prefix) > 0) break;
+                continue;
+            }
+            int delimiterIndex = delimiter == null ? -1 : key.indexOf(delimiter, prefix.length());
+            String commonPrefix = delimiterIndex < 0 ? null : key.substring(0, delimiterIndex + delimiter.length());
+            if (commonPrefix != null && commonPrefix.equals(lastCommonPrefix)) {
+                continue;
+            }
+            if (count == maxKeys) {
+                truncated = true;
+                break;
+            }
+            if (commonPrefix != null) {
+                commonPrefixes.append("<CommonPrefixes><Prefix>").append(encode(commonPrefix, urlEncoding)).append("</Prefix></CommonPrefixes>");
+                lastCommonPrefix = commonPrefix;
+                last = commonPrefix;
+            } else {
+                StoredObject object = entry.getValue();
+                contents.append("<Contents>")
+                        .append("<Key>").append(encode(key, urlEncoding)).append("</Key>")
+                        .append("<LastModified>").append(DateTimeFormatter.ISO_INSTANT.format(object.lastModified)).append("</LastModified>")
+                        .append("<ETag>").append(escape(object.eTag)).append("</ETag>")
+                        .append("<Size>").append(object.data.length).append("</Size>")
+                        .append("<StorageClass>STANDARD</StorageClass>")
+                        .append("</Contents>");
+                last = key;
+            }
+            count++;
+        }
+
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .append("<ListBucketResult xmlns=\"").append(NAMESPACE).append("\">")
+                .append("<Name>").append(escape(bucket)).append("</Name>")
+                .append("<Prefix>").append(encode(prefix, urlEncoding)).append("</Prefix>")
+                .append("<KeyCount>").append(count).append("</KeyCount>")
+                .append("<MaxKeys>").append(maxKeys).append("</MaxKeys>")
+                .append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (delimiter != null) {
+            xml.append("<Delimiter>").append(encode(delimiter, urlEncoding)).append("</Delimiter>");
+        }
+        if (urlEncoding) {
+            xml.append("<EncodingType>url</EncodingType>");
+        }
+        if (startAfter != null) {
+            xml.append("<StartAfter>").append(encode(startAfter, urlEncoding)).append("</StartAfter>");
+        }
+        if (continuationToken != null) {
+            xml.append("<ContinuationToken>").append(continuationToken).append("</ContinuationToken>");
+        }
+        if (truncated) {
+            xml.append("<NextContinuationToken>")
+                    .append(Base64.getUrlEncoder().encodeToString(last.getBytes(StandardCharsets.UTF_8)))
+                    .append("</NextContinuationToken>");
+        }
+        xml.append(contents).append(commonPrefixes).append("</ListBucketResult>");
+        sendXml(exchange, 200, xml.toString());
+    }
+
+    private void deleteObjects(HttpExchange exchange, NavigableMap<String, StoredObject> objects) throws IOException {
+        String body = new String(readBody(exchange), StandardCharsets.UTF_8);
+        boolean quiet = body.contains("<Quiet>true</Quiet>");
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .append("<DeleteResult xmlns=\"").append(NAMESPACE).append("\">");
+        Matcher matcher = DELETE_KEY_PATTERN.matcher(body);
+        while (matcher.find()) {
+            String key = unescape(matcher.group(1));
+            objects.remove(key);
+            if (!quiet) {
+                xml.append("<Deleted><Key>").append(escape(key)).append("</Key></Deleted>");
+            }
+        }
+        xml.append("</DeleteResult>");
+        sendXml(exchange, 200, xml.toString());
+    }
+
+    /**
+     * Reads the request body, decoding the aws-chunked content encoding used by the SDK for streaming uploads.
+     */
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        boolean chunked = (contentSha256 != null && contentSha256.startsWith("STREAMING-"))
+                || (contentEncoding != null && contentEncoding.contains("aws-chunked"));
+        return chunked ? decodeAwsChunked(body) : body;
+    }
+
+    private static byte[] decodeAwsChunked(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length);
+        int position = 0;
+        while (position < body.length) {
+            int lineEnd = indexOfCrLf(body, position);
+            if (lineEnd < 0) break;
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int extension = header.indexOf(';');
+            int size = Integer.parseInt((extension < 0 ? header : header.substring(0, extension)).trim(), 16);
+            if (size == 0) break;
+            position = lineEnd + 2;
+            out.write(body, position, size);
+            position += size + 2;
+        }
+        return out.toByteArray();
+    }
+
+    private static int indexOfCrLf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code, String resource) throws IOException {
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            sendEmpty(exchange, status);
+            return;
+        }
+        sendXml(exchange, status, "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>" + code + "</Code><Message>" + code
+                + "</Message><Resource>" + escape(resource) + "</Resource><RequestId>embedded</RequestId></Error>");
+    }
+
+    private static void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        send(exchange, status, xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] data) throws IOException {
+        exchange.sendResponseHeaders(status, data.length == 0 ? -1 : data.length);
+        if (data.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(data);
+            }
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = decode(separator < 0 ? parameter : parameter.substring(0, separator));
+            String value = separator < 0 ? "" : decode(parameter.substring(separator + 1));
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static String decode(String value) {
+        // n.b. the SDK percent-encodes a literal '+', so it must not be decoded as a space
+        return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    private static String encode(String value, boolean urlEncoding) {
+        return urlEncoding ? URLEncoder.encode(value, StandardCharsets.UTF_8) : escape(value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;").replace("'", "&apos;");
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private static final class InjectedError {
+        private final double probability;
+        private final int status;
+        private final String code;
+
+        private InjectedError(double probability, int status, String code) {
+            this.probability = probability;
+            this.status = status;
+            this.code = code;
+        }
+    }
+
+    private static final class InjectedDelay {
+        private final AtomicInteger remaining;
+        private final long latencyMillis;
+
+        private InjectedDelay(int requests, long latencyMillis) {
+            this.remaining = new AtomicInteger(requests);
+            this.latencyMillis = latencyMillis;
+        }
+    }
+
+    private static final class StoredObject {
+        private final byte[] data;
+        private final String eTag;
+        private final Instant lastModified;
+
+        private StoredObject(byte[] data, Instant lastModified) {
+            this.data = data;
+            this.eTag = '"' + md5(data) + '"';
+            // n.b. the Last-Modified header has a precision of seconds, keep the listing consistent with it
+            this.lastModified = lastModified.truncatedTo(ChronoUnit.SECONDS);
+        }
+
+        private static String md5(byte[] data) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
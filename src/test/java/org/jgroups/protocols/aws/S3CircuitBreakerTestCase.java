@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+
+import org.jgroups.logging.LogFactory;
+import org.jgroups.protocols.aws.S3CircuitBreaker.Permit;
+import org.jgroups.protocols.aws.S3CircuitBreaker.State;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.AbortedException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Tests the state transitions of the circuit breaker guarding the AWS S3 clients.
+ */
+public class S3CircuitBreakerTestCase {
+
+    private static final int THRESHOLD = 3;
+    private static final long LONG_BACKOFF = 60_000;
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        S3CircuitBreaker breaker = create(LONG_BACKOFF, LONG_BACKOFF);
+
+        fail(breaker, THRESHOLD - 1);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        fail(breaker, 1);
+        assertEquals(State.OPEN, breaker.getState());
+        assertTrue(breaker.isOpen());
+        assertEquals(Permit.REJECTED, breaker.acquire());
+        assertEquals(1, breaker.getRejected());
+    }
+
+    @Test
+    public void testSuccessResetsConsecutiveFailures() {
+        S3CircuitBreaker breaker = create(LONG_BACKOFF, LONG_BACKOFF);
+
+        fail(breaker, THRESHOLD - 1);
+        breaker.onSuccess(breaker.acquire());
+        fail(breaker, THRESHOLD - 1);
+
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testSuccessfulProbeClosesCircuit() {
+        S3CircuitBreaker breaker = open(create(0, LONG_BACKOFF));
+
+        Permit probe = breaker.acquire();
+        assertEquals(Permit.PROBE, probe);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertEquals(Permit.REJECTED, breaker.acquire(), "only a single probe at a time");
+
+        breaker.onSuccess(probe);
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(Permit.GRANTED, breaker.acquire());
+    }
+
+    @Test
+    public void testFailedProbeOpensCircuitAgain() {
+        S3CircuitBreaker breaker = open(create(0, LONG_BACKOFF));
+
+        breaker.onFailure(breaker.acquire());
+
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testAbortedProbeReturnsToOpen() {
+        S3CircuitBreaker breaker = open(create(0, LONG_BACKOFF));
+
+        Permit probe = breaker.acquire();
+        breaker.onAbort(probe);
+
+        assertEquals(State.OPEN, breaker.getState(), "an aborted probe does not close the circuit");
+        assertEquals(Permit.PROBE, breaker.acquire(), "the probe slot is free again");
+    }
+
+    @Test
+    public void testAbortedCallIsIgnoredWhileClosed() {
+        S3CircuitBreaker breaker = create(LONG_BACKOFF, LONG_BACKOFF);
+
+        fail(breaker, THRESHOLD - 1);
+        breaker.onAbort(breaker.acquire());
+        fail(breaker, 1);
+
+        assertEquals(State.OPEN, breaker.getState(), "an aborted call neither counts as success nor as failure");
+    }
+
+    @Test
+    public void testProbeNeverCompletingIsReplaced() {
+        // n.b. a probe is replaced once the maximum backoff elapsed
+        S3CircuitBreaker breaker = open(create(0, 1));
+
+        assertEquals(Permit.PROBE, breaker.acquire());
+        Util.sleep(10);
+
+        assertEquals(Permit.PROBE, breaker.acquire());
+    }
+
+    @Test
+    public void testClassifiesFailures() {
+        assertTrue(S3CircuitBreaker.isUnavailable(S3Exception.builder().statusCode(503).build()));
+        assertTrue(S3CircuitBreaker.isUnavailable(S3Exception.builder().statusCode(429).build()));
+        assertTrue(S3CircuitBreaker.isUnavailable(SdkClientException.create("Unable to connect")));
+        assertFalse(S3CircuitBreaker.isUnavailable(S3Exception.builder().statusCode(404).build()));
+
+        assertTrue(S3CircuitBreaker.isAborted(AbortedException.create("Thread was interrupted")));
+        assertTrue(S3CircuitBreaker.isAborted(SdkClientException.create("Interrupted", new InterruptedException())));
+        assertTrue(S3CircuitBreaker.isAborted(new CompletionException(new CancellationException())));
+        assertFalse(S3CircuitBreaker.isAborted(SdkClientException.create("Unable to connect")));
+        assertFalse(S3CircuitBreaker.isUnavailable(AbortedException.create("Thread was interrupted")));
+    }
+
+    private static S3CircuitBreaker create(long minBackoff, long maxBackoff) {
+        return new S3CircuitBreaker(LogFactory.getLog(S3CircuitBreakerTestCase.class), THRESHOLD, minBackoff, maxBackoff);
+    }
+
+    private static S3CircuitBreaker open(S3CircuitBreaker breaker) {
+        fail(breaker, THRESHOLD);
+        assertEquals(State.OPEN, breaker.getState());
+        return breaker;
+    }
+
+    private static void fail(S3CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.onFailure(breaker.acquire());
+        }
+    }
+}
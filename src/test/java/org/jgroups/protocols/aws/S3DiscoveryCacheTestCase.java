@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jgroups.protocols.PingData;
+import org.jgroups.protocols.aws.S3DiscoveryCache.CachedRead;
+import org.jgroups.util.UUID;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the de-duplication and expiry of the reads shared by the protocol instances in a JVM.
+ */
+public class S3DiscoveryCacheTestCase {
+
+    private static final long LONG_TTL = TimeUnit.MINUTES.toNanos(1);
+    private static final long LONG_TIMEOUT = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    public void testConcurrentReadsLoadOnce() throws Exception {
+        S3DiscoveryCache cache = new S3DiscoveryCache();
+        List<PingData> membership = createMembership();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<CachedRead> leader = executor.submit(() -> cache.get("key", LONG_TTL, LONG_TIMEOUT, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return membership;
+            }));
+            loading.await();
+            List<Future<CachedRead>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> cache.get("key", LONG_TTL, LONG_TIMEOUT, () -> {
+                    loads.incrementAndGet();
+                    return null;
+                })));
+            }
+            release.countDown();
+
+            assertFalse(leader.get().shared());
+            for (Future<CachedRead> follower : followers) {
+                assertTrue(follower.get().shared());
+                assertSame(membership, follower.get().membership());
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testServesReadWithinTimeToLive() throws Exception {
+        S3DiscoveryCache cache = new S3DiscoveryCache();
+        List<PingData> membership = createMembership();
+
+        cache.get("key", LONG_TTL, LONG_TIMEOUT, () -> membership);
+        CachedRead read = cache.get("key", LONG_TTL, LONG_TIMEOUT, () -> null);
+
+        assertTrue(read.shared());
+        assertSame(membership, read.membership());
+    }
+
+    @Test
+    public void testReadsAgainOnceExpired() throws Exception {
+        S3DiscoveryCache cache = new S3DiscoveryCache();
+        List<PingData> membership = createMembership();
+
+        cache.get("key", 0, LONG_TIMEOUT, () -> createMembership());
+        CachedRead read = cache.get("key", 0, LONG_TIMEOUT, () -> membership);
+
+        assertFalse(read.shared());
+        assertSame(membership, read.membership());
+    }
+
+    @Test
+    public void testFailedReadIsNotCached() throws Exception {
+        S3DiscoveryCache cache = new S3DiscoveryCache();
+        List<PingData> membership = createMembership();
+
+        assertNull(cache.get("key", LONG_TTL, LONG_TIMEOUT, () -> null).membership());
+        CachedRead read = cache.get("key", LONG_TTL, LONG_TIMEOUT, () -> membership);
+
+        assertFalse(read.shared());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testStuckReadIsNotWaitedForBeyondTimeout() throws Exception {
+        S3DiscoveryCache cache = new S3DiscoveryCache();
+        List<PingData> membership = createMembership();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> cache.get("key", LONG_TTL, LONG_TIMEOUT, () -> {
+                loading.countDown();
+                await(release);
+                return null;
+            }));
+            loading.await();
+
+            CachedRead read = cache.get("key", LONG_TTL, TimeUnit.MILLISECONDS.toNanos(50), () -> membership);
+
+            assertFalse(read.shared(), "the membership is read by the caller once the timeout elapsed");
+            assertSame(membership, read.membership());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEvictsExpiredReads() throws Exception {
+        S3DiscoveryCache cache = new S3DiscoveryCache();
+        long ttl = TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < 10; i++) {
+            cache.get("cluster-" + i, ttl, LONG_TIMEOUT, S3DiscoveryCacheTestCase::createMembership);
+        }
+        Util.sleep(20);
+
+        cache.get("other", ttl, LONG_TIMEOUT, S3DiscoveryCacheTestCase::createMembership);
+
+        assertEquals(1, cache.size(), "only the new read is retained");
+    }
+
+    @Test
+    public void testInvalidatesReadsOfCluster() throws Exception {
+        S3DiscoveryCache cache = new S3DiscoveryCache();
+        cache.get("bucket|cluster|0|false|0", LONG_TTL, LONG_TIMEOUT, S3DiscoveryCacheTestCase::createMembership);
+        cache.get("bucket|cluster|16|true|0", LONG_TTL, LONG_TIMEOUT, S3DiscoveryCacheTestCase::createMembership);
+        cache.get("bucket|other|0|false|0", LONG_TTL, LONG_TIMEOUT, S3DiscoveryCacheTestCase::createMembership);
+
+        cache.invalidate("bucket|cluster|");
+
+        assertEquals(1, cache.size(), "the reads of all configurations of the cluster are discarded");
+        assertFalse(cache.get("bucket|cluster|0|false|0", LONG_TTL, LONG_TIMEOUT, S3DiscoveryCacheTestCase::createMembership).shared());
+    }
+
+    private static List<PingData> createMembership() {
+        List<PingData> membership = new ArrayList<>();
+        membership.add(new PingData(UUID.randomUUID(), true));
+        return membership;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
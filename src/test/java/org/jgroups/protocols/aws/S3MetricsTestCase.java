@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.aws.EmbeddedS3Server.Operation;
+import org.jgroups.protocols.aws.S3Metrics.LatencyHistogram;
+import org.jgroups.util.Responses;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the latency histograms and the recording of the AWS S3 operations against an {@link EmbeddedS3Server}.
+ */
+public class S3MetricsTestCase {
+
+    private static final String CLUSTER = "metrics";
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100.0, histogram.getMax(), 0.001);
+        assertWithinBucket(50, histogram.getPercentile(50));
+        assertWithinBucket(90, histogram.getPercentile(90));
+        assertWithinBucket(99, histogram.getPercentile(99));
+        assertEquals(100.0, histogram.getPercentile(100), 0.001, "the percentile does not exceed the maximum");
+    }
+
+    @Test
+    public void testPercentilesOfEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.getPercentile(99));
+        assertEquals(0.0, histogram.getMax());
+    }
+
+    @Test
+    public void testNotModifiedIsNotAnError() throws Exception {
+        S3_PING ping = createProtocol();
+        connect(ping);
+        JChannel other = connect(createProtocol());
+        ping.targeted_fetch = true;
+
+        ping.readAll(List.of(other.getAddress()), CLUSTER, new Responses(false));
+        ping.resetStats();
+        server.resetCounts();
+        Responses responses = new Responses(false);
+        ping.readAll(List.of(other.getAddress()), CLUSTER, responses);
+
+        assertEquals(1, responses.size(), "the cached member file is used");
+        assertEquals(1, server.getRequestCount(Operation.GET));
+        assertEquals(1, ping.getS3GetCount());
+        assertEquals(0, ping.getS3GetErrors(), "an unchanged member file is not an error");
+    }
+
+    @Test
+    public void testSharedClientsKeepMetricsPerInstance() throws Exception {
+        S3_PING ping = createProtocol();
+        S3_PING other = createProtocol();
+        ping.share_client = true;
+        other.share_client = true;
+        connect(ping);
+        connect(other);
+        ping.resetStats();
+        other.resetStats();
+
+        ping.readAll(null, CLUSTER, new Responses(false));
+
+        assertTrue(ping.getS3ListCount() > 0);
+        assertEquals(0, other.getS3ListCount(), "the requests of another instance are not recorded");
+        other.resetStats();
+        assertTrue(ping.getS3ListCount() > 0, "resetting another instance does not reset the metrics");
+    }
+
+    private static void assertWithinBucket(double expected, double actual) {
+        // n.b. the upper bound of the bucket holding the percentile exceeds it by at most 12.5%
+        assertTrue(actual >= expected && actual <= expected * 1.125, "expected " + expected + " ms within 12.5% but got " + actual + " ms");
+    }
+
+    private S3_PING createProtocol() {
+        return S3_PINGTestSupport.createProtocol(server);
+    }
+
+    private JChannel connect(S3_PING ping) throws Exception {
+        JChannel channel = S3_PINGTestSupport.connect(ping, CLUSTER);
+        channels.add(channel);
+        return channel;
+    }
+}
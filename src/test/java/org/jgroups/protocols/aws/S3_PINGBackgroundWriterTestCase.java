@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the ordering, coalescing and flushing of the operations performed by the background writer.
+ */
+public class S3_PINGBackgroundWriterTestCase {
+
+    private final List<String> performed = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testPerformsLatestOperationPerKeyInOrderOfLatestSubmission() throws Exception {
+        S3_PING.BackgroundWriter writer = new S3_PING().new BackgroundWriter();
+
+        // n.b. submitted before the writer runs, so that all of them are pending
+        assertTrue(writer.submit("a", record("a1")));
+        assertTrue(writer.submit("b", record("b1")));
+        assertTrue(writer.submit("a", record("a2")));
+        start(writer);
+
+        assertTrue(writer.stop(10_000));
+        assertEquals(List.of("b1", "a2"), performed);
+    }
+
+    @Test
+    public void testStopPerformsPendingOperations() throws Exception {
+        S3_PING.BackgroundWriter writer = new S3_PING().new BackgroundWriter();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        start(writer);
+
+        writer.submit("a", () -> {
+            running.countDown();
+            await(release);
+            performed.add("a");
+        });
+        running.await();
+        writer.submit("b", record("b"));
+        writer.submit("c", record("c"));
+        release.countDown();
+
+        assertTrue(writer.stop(10_000), "pending operations are performed before the writer stops");
+        assertEquals(List.of("a", "b", "c"), performed);
+        assertFalse(writer.submit("d", record("d")), "a stopped writer does not accept operations");
+    }
+
+    @Test
+    public void testStopGivesUpAfterTimeout() throws Exception {
+        S3_PING.BackgroundWriter writer = new S3_PING().new BackgroundWriter();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        start(writer);
+
+        writer.submit("a", () -> {
+            running.countDown();
+            await(release);
+        });
+        running.await();
+        writer.submit("b", record("b"));
+
+        try {
+            assertFalse(writer.stop(50));
+        } finally {
+            release.countDown();
+        }
+        assertTrue(performed.isEmpty(), "operations still pending are dropped");
+    }
+
+    @Test
+    public void testRejectsOperationsOfNewKeysWhenFull() {
+        S3_PING ping = new S3_PING();
+        ping.async_write_queue_capacity = 1;
+        S3_PING.BackgroundWriter writer = ping.new BackgroundWriter();
+
+        assertTrue(writer.submit("a", record("a1")));
+        assertFalse(writer.submit("b", record("b1")), "the caller performs the operation instead");
+        assertTrue(writer.submit("a", record("a2")), "an operation replacing a pending one is accepted");
+    }
+
+    @Test
+    public void testCancelsPendingOperations() throws Exception {
+        S3_PING.BackgroundWriter writer = new S3_PING().new BackgroundWriter();
+        writer.submit("cluster/a", record("a"));
+        writer.submit("other/b", record("b"));
+
+        writer.cancel(key -> key.startsWith("cluster/"));
+        start(writer);
+
+        assertTrue(writer.stop(10_000));
+        assertEquals(List.of("b"), performed);
+    }
+
+    private Runnable record(String name) {
+        return () -> performed.add(name);
+    }
+
+    private static void start(S3_PING.BackgroundWriter writer) {
+        Thread thread = new Thread(writer, "background-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.PingData;
+import org.jgroups.protocols.aws.EmbeddedS3Server.Operation;
+import org.jgroups.stack.IpAddress;
+import org.jgroups.util.Responses;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests skipping unchanged writes and coalescing writes of the member file against an {@link EmbeddedS3Server}.
+ */
+public class S3_PINGChangeDetectionTestCase {
+
+    private static final String CLUSTER = "changes";
+    private static final long UNCHANGED_WRITE_REFRESH_INTERVAL = 60_000;
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testRewritesMemberFileRemovedBehindItsBack() throws Exception {
+        S3_PING ping = createProtocol();
+        JChannel channel = connect(ping);
+        String key = ping.getMemberKey(ping.getClusterPrefix(CLUSTER), channel.getAddress());
+        awaitUpload(ping, key);
+        List<PingData> list = createMemberList(channel, 7800);
+        ping.write(list, CLUSTER);
+
+        server.resetCounts();
+        ping.write(list, CLUSTER);
+        assertEquals(0, server.getRequestCount(Operation.PUT), "the unchanged content is not written again");
+
+        server.deleteObject(S3_PINGTestSupport.BUCKET, key);
+        ping.readAll(null, CLUSTER, new Responses(false));
+        ping.write(list, CLUSTER);
+
+        assertEquals(1, server.getRequestCount(Operation.PUT), "the member file missing from the listing is written again");
+        assertEquals(1, server.countObjects(S3_PINGTestSupport.BUCKET, key));
+    }
+
+    @Test
+    public void testCoalescedWritesUploadLatestContent() throws Exception {
+        S3_PING ping = createProtocol();
+        ping.write_coalescing_delay = 200;
+        JChannel channel = connect(ping);
+        String key = ping.getMemberKey(ping.getClusterPrefix(CLUSTER), channel.getAddress());
+        // n.b. let the write of the join complete first
+        awaitUpload(ping, key);
+
+        server.resetCounts();
+        ping.write(createMemberList(channel, 7801), CLUSTER);
+        ping.write(createMemberList(channel, 7802), CLUSTER);
+        List<PingData> latest = createMemberList(channel, 7803);
+        ping.write(latest, CLUSTER);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Arrays.equals(ping.serialize(latest), server.getObject(S3_PINGTestSupport.BUCKET, key)) && System.currentTimeMillis() < deadline) {
+            Util.sleep(10);
+        }
+        assertArrayEquals(ping.serialize(latest), server.getObject(S3_PINGTestSupport.BUCKET, key), "the latest content is uploaded");
+        assertEquals(1, server.getRequestCount(Operation.PUT), "the writes are coalesced into a single upload");
+    }
+
+    private static void awaitUpload(S3_PING ping, String key) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((!ping.pendingWrites.isEmpty() || !ping.uploadedDigests.containsKey(key)) && System.currentTimeMillis() < deadline) {
+            Util.sleep(10);
+        }
+        assertTrue(ping.pendingWrites.isEmpty() && ping.uploadedDigests.containsKey(key));
+    }
+
+    /**
+     * @return the member list of the given channel with the given port, which makes the content of each list distinct
+     */
+    private static List<PingData> createMemberList(JChannel channel, int port) throws Exception {
+        List<PingData> list = new ArrayList<>(1);
+        list.add(new PingData(channel.getAddress(), true, channel.getName(), new IpAddress("127.0.0.1", port)).coord(true));
+        return list;
+    }
+
+    private S3_PING createProtocol() {
+        S3_PING ping = S3_PINGTestSupport.createProtocol(server);
+        ping.unchanged_write_refresh_interval = UNCHANGED_WRITE_REFRESH_INTERVAL;
+        return ping;
+    }
+
+    private JChannel connect(S3_PING ping) throws Exception {
+        JChannel channel = S3_PINGTestSupport.connect(ping, CLUSTER);
+        channels.add(channel);
+        return channel;
+    }
+}
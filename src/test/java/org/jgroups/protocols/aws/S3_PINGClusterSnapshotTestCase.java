@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.aws.EmbeddedS3Server.Operation;
+import org.jgroups.util.Responses;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests reading the membership from the cluster snapshot written by the coordinator against an {@link EmbeddedS3Server}.
+ */
+public class S3_PINGClusterSnapshotTestCase {
+
+    private static final String CLUSTER = "snapshot";
+    // n.b. long enough for the coordinator not to refresh the snapshot during a test
+    private static final long CLUSTER_SNAPSHOT_MAX_AGE = 60_000;
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testRemovesSnapshotOnStop() throws Exception {
+        S3_PING coordinator = createProtocol(new S3_PING());
+        JChannel channel = connect(coordinator);
+        awaitSnapshot(coordinator, 1);
+
+        channel.close();
+
+        awaitSnapshot(coordinator, 0);
+    }
+
+    @Test
+    public void testScansAfterSnapshotDidNotLeadToJoin() throws Exception {
+        S3_PING coordinator = createProtocol(new S3_PING());
+        JChannel a = connect(coordinator);
+        awaitSnapshot(coordinator, 1);
+        // n.b. connected to a cluster of its own, so that the snapshot is not rewritten as the coordinator's view changes
+        JoiningS3_PING joiner = createProtocol(new JoiningS3_PING());
+        connect(joiner, "joiner");
+        joiner.forgetView();
+
+        server.resetCounts();
+        Responses responses = new Responses(false);
+        joiner.readAll(null, CLUSTER, responses);
+        assertTrue(responses.containsResponseFrom(a.getAddress()));
+        assertEquals(0, server.getRequestCount(Operation.LIST), "the snapshot is used");
+
+        // n.b. the member did not join the coordinator of the snapshot it used
+        responses = new Responses(false);
+        joiner.readAll(null, CLUSTER, responses);
+        assertTrue(responses.containsResponseFrom(a.getAddress()));
+        assertTrue(server.getRequestCount(Operation.LIST) > 0, "the member files are scanned");
+    }
+
+    @Test
+    public void testScansWhenSnapshotIsStale() throws Exception {
+        S3_PING coordinator = createProtocol(new S3_PING());
+        JChannel a = connect(coordinator);
+        awaitSnapshot(coordinator, 1);
+        S3_PING member = createProtocol(new S3_PING());
+        connect(member, "member");
+
+        // n.b. as left behind by a coordinator which crashed long ago
+        server.putObject(S3_PINGTestSupport.BUCKET, coordinator.getClusterSnapshotKey(CLUSTER), coordinator.clusterSnapshotData,
+                Instant.now().minus(CLUSTER_SNAPSHOT_MAX_AGE * 2, ChronoUnit.MILLIS));
+        server.resetCounts();
+        Responses responses = new Responses(false);
+        member.readAll(null, CLUSTER, responses);
+
+        assertTrue(server.getRequestCount(Operation.LIST) > 0, "the member files are scanned");
+        assertTrue(responses.containsResponseFrom(a.getAddress()));
+    }
+
+    private void awaitSnapshot(S3_PING ping, int count) {
+        // n.b. the snapshot is written and removed along with the member file, possibly in the background
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (server.countObjects(S3_PINGTestSupport.BUCKET, ping.getClusterSnapshotKey(CLUSTER)) != count && System.currentTimeMillis() < deadline) {
+            Util.sleep(10);
+        }
+        assertEquals(count, server.countObjects(S3_PINGTestSupport.BUCKET, ping.getClusterSnapshotKey(CLUSTER)));
+    }
+
+    private <P extends S3_PING> P createProtocol(P ping) {
+        S3_PINGTestSupport.configure(ping, server);
+        ping.cluster_snapshot = true;
+        ping.cluster_snapshot_max_age = CLUSTER_SNAPSHOT_MAX_AGE;
+        return ping;
+    }
+
+    private JChannel connect(S3_PING ping) throws Exception {
+        return connect(ping, CLUSTER);
+    }
+
+    private JChannel connect(S3_PING ping, String cluster) throws Exception {
+        JChannel channel = S3_PINGTestSupport.connect(ping, cluster);
+        channels.add(channel);
+        return channel;
+    }
+
+    /**
+     * Forgets its view, as a member does whose join is still in progress.
+     */
+    private static final class JoiningS3_PING extends S3_PING {
+        void forgetView() {
+            view = null;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.aws.EmbeddedS3Server.Operation;
+import org.jgroups.util.Responses;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests hedging the get requests of member files against an {@link EmbeddedS3Server}.
+ */
+public class S3_PINGHedgingTestCase {
+
+    private static final String CLUSTER = "hedging";
+    private static final long HEDGE_DELAY = 50;
+    private static final long SLOW_RESPONSE = 3_000;
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+    private S3_PING ping;
+    private JChannel other;
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+        ping = S3_PINGTestSupport.createProtocol(server);
+        ping.parallel_fetch = true;
+        ping.targeted_fetch = true;
+        ping.hedge_delay = HEDGE_DELAY;
+        connect(ping);
+        other = connect(S3_PINGTestSupport.createProtocol(server));
+        ping.resetStats();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testHedgedRequestOvertakesSlowRequest() throws Exception {
+        server.delayNext(Operation.GET, 1, SLOW_RESPONSE, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        Responses responses = fetch();
+
+        assertTrue(responses.containsResponseFrom(other.getAddress()));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < SLOW_RESPONSE, "the slow response is not waited for");
+        assertEquals(1, ping.getS3HedgedGets());
+        assertEquals(1, ping.getS3HedgedGetWins());
+    }
+
+    @Test
+    public void testFastRequestIsNotHedged() throws Exception {
+        server.resetCounts();
+        Responses responses = fetch();
+
+        assertTrue(responses.containsResponseFrom(other.getAddress()));
+        assertEquals(0, ping.getS3HedgedGets());
+        assertEquals(1, server.getRequestCount(Operation.GET));
+    }
+
+    @Test
+    public void testDoesNotHedgeBeyondBudget() throws Exception {
+        ping.hedgeCredits.set(0);
+        server.delayNext(Operation.GET, 1, 500, TimeUnit.MILLISECONDS);
+
+        Responses responses = fetch();
+
+        assertTrue(responses.containsResponseFrom(other.getAddress()), "the slow response is used");
+        assertEquals(0, ping.getS3HedgedGets());
+    }
+
+    private Responses fetch() {
+        Responses responses = new Responses(false);
+        ping.readAll(List.of(other.getAddress()), CLUSTER, responses);
+        return responses;
+    }
+
+    private JChannel connect(S3_PING protocol) throws Exception {
+        JChannel channel = S3_PINGTestSupport.connect(protocol, CLUSTER);
+        channels.add(channel);
+        return channel;
+    }
+}
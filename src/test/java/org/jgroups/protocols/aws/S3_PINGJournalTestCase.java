@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.jgroups.protocols.aws.S3_PINGTestSupport.addresses;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.PingData;
+import org.jgroups.protocols.aws.EmbeddedS3Server.Operation;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests reading the membership from the change journal against an {@link EmbeddedS3Server}.
+ */
+public class S3_PINGJournalTestCase {
+
+    private static final String CLUSTER = "journal";
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testAppliesJournalEntries() throws Exception {
+        S3_PING ping = createProtocol();
+        JChannel a = connect(ping);
+        assertNotNull(ping.readJournal(null, CLUSTER, null));
+        long fullResyncs = ping.getJournalFullResyncs();
+        long entriesRead = ping.getJournalEntriesRead();
+
+        JChannel b = connect(createProtocol());
+        List<PingData> membership = ping.readJournal(null, CLUSTER, null);
+        assertTrue(addresses(membership).contains(b.getAddress()), "the joined member is read from the journal");
+        assertTrue(addresses(membership).contains(a.getAddress()));
+        assertTrue(ping.getJournalEntriesRead() > entriesRead);
+
+        ping.remove(CLUSTER, b.getAddress());
+        membership = ping.readJournal(null, CLUSTER, null);
+        assertFalse(addresses(membership).contains(b.getAddress()), "the removed member is dropped by its journal entry");
+        assertEquals(fullResyncs, ping.getJournalFullResyncs(), "no member files were read");
+    }
+
+    @Test
+    public void testResyncsAfterRemoveAll() throws Exception {
+        S3_PING ping = createProtocol();
+        S3_PING other = createProtocol();
+        connect(ping);
+        JChannel b = connect(other);
+        assertTrue(addresses(other.readJournal(null, CLUSTER, null)).contains(b.getAddress()));
+        long fullResyncs = other.getJournalFullResyncs();
+
+        ping.removeAll(CLUSTER);
+
+        // n.b. the member files were removed without journaling each of them
+        assertFalse(addresses(other.readJournal(null, CLUSTER, null)).contains(b.getAddress()), "the member files were read again");
+        assertEquals(fullResyncs + 1, other.getJournalFullResyncs());
+        other.readJournal(null, CLUSTER, null);
+        assertEquals(fullResyncs + 1, other.getJournalFullResyncs(), "the reset entry is only applied once");
+    }
+
+    @Test
+    public void testReadingEntriesIsBounded() throws Exception {
+        S3_PING ping = createProtocol();
+        connect(ping);
+        assertNotNull(ping.readJournal(null, CLUSTER, null));
+        connect(createProtocol());
+
+        ping.fetch_timeout = 100;
+        server.setLatency(500, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        assertNull(ping.readJournal(null, CLUSTER, null), "the round fails once the fetch timeout elapsed");
+        // n.b. only the list request is not bounded by the fetch timeout
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_000);
+
+        server.setLatency(0, TimeUnit.MILLISECONDS);
+        long fullResyncs = ping.getJournalFullResyncs();
+        assertNotNull(ping.readJournal(null, CLUSTER, null));
+        assertEquals(fullResyncs + 1, ping.getJournalFullResyncs(), "a failed round is followed by a full resync");
+    }
+
+    @Test
+    public void testScanDoesNotListJournal() throws Exception {
+        S3_PING ping = createProtocol();
+        ping.list_page_size = 1;
+        JChannel a = connect(ping);
+        String journalPrefix = ping.getClusterPrefix(CLUSTER) + S3_PING.JOURNAL_NAME;
+        for (int i = 0; i < 20; i++) {
+            server.putObject(S3_PINGTestSupport.BUCKET, journalPrefix + "entry-" + i, new byte[0]);
+        }
+
+        server.resetCounts();
+        List<PingData> membership = ping.scanMemberFiles(null, CLUSTER, null);
+
+        assertTrue(addresses(membership).contains(a.getAddress()));
+        // n.b. one page for the member file and one for the journal prefix, rather than one per journal entry
+        assertTrue(server.getRequestCount(Operation.LIST) <= 3, "listed " + server.getRequestCount(Operation.LIST) + " pages");
+    }
+
+    private S3_PING createProtocol() {
+        S3_PING ping = S3_PINGTestSupport.createProtocol(server);
+        ping.journal = true;
+        return ping;
+    }
+
+    private JChannel connect(S3_PING ping) throws Exception {
+        JChannel channel = S3_PINGTestSupport.connect(ping, CLUSTER);
+        channels.add(channel);
+        return channel;
+    }
+}
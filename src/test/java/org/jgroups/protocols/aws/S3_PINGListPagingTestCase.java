@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jgroups.Address;
+import org.jgroups.JChannel;
+import org.jgroups.protocols.aws.EmbeddedS3Server.Operation;
+import org.jgroups.util.Responses;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests reading member files spread over several list pages against an {@link EmbeddedS3Server}.
+ */
+public class S3_PINGListPagingTestCase {
+
+    private static final String CLUSTER = "paging";
+    private static final int PAGE_SIZE = 2;
+    private static final int MEMBERS = 5;
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testReadsAllPages() throws Exception {
+        assertReadsAllPages(createProtocol());
+    }
+
+    @Test
+    public void testReadsAllPagesConcurrently() throws Exception {
+        S3_PING ping = createProtocol();
+        ping.parallel_fetch = true;
+        assertReadsAllPages(ping);
+    }
+
+    private void assertReadsAllPages(S3_PING ping) throws Exception {
+        JChannel channel = S3_PINGTestSupport.connect(ping, CLUSTER);
+        channels.add(channel);
+        List<Address> members = new ArrayList<>(MEMBERS);
+        members.add(channel.getAddress());
+        for (int i = 1; i < MEMBERS; i++) {
+            members.add(S3_PINGTestSupport.putMember(server, ping, CLUSTER, "member-" + i).getAddress());
+        }
+
+        server.resetCounts();
+        Responses responses = new Responses(false);
+        ping.readAll(null, CLUSTER, responses);
+
+        for (Address member : members) {
+            assertTrue(responses.containsResponseFrom(member), "the member file of " + member + " is read");
+        }
+        assertTrue(server.getRequestCount(Operation.LIST) >= (MEMBERS + PAGE_SIZE - 1) / PAGE_SIZE,
+                "listed " + server.getRequestCount(Operation.LIST) + " pages");
+    }
+
+    private S3_PING createProtocol() {
+        S3_PING ping = S3_PINGTestSupport.createProtocol(server);
+        ping.list_page_size = PAGE_SIZE;
+        return ping;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.jgroups.protocols.aws.S3_PINGTestSupport.addresses;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.PingData;
+import org.jgroups.util.Responses;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests seeding the first discovery round from the local membership snapshot against an {@link EmbeddedS3Server}.
+ */
+public class S3_PINGLocalSnapshotTestCase {
+
+    private static final String CLUSTER = "local";
+    private static final long LATENCY = 2_000;
+
+    @TempDir
+    Path snapshotDir;
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        server.setLatency(0, TimeUnit.MILLISECONDS);
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testSeedsFirstRoundFromLocalSnapshot() throws Exception {
+        S3_PING ping = createProtocol();
+        connect(ping, CLUSTER);
+        PingData member = S3_PINGTestSupport.putMember(server, ping, CLUSTER, "member");
+        ping.readAll(null, CLUSTER, new Responses(false));
+
+        // n.b. as after a restart, connected to a cluster of its own so that its first round of the cluster is seeded
+        S3_PING restarted = createProtocol();
+        connect(restarted, "restarted");
+        server.setLatency(LATENCY, TimeUnit.MILLISECONDS);
+        Responses responses = new Responses(false);
+        long start = System.nanoTime();
+        restarted.readAll(null, CLUSTER, responses);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(responses.containsResponseFrom(member.getAddress()), "the member is read from the local snapshot");
+        assertTrue(elapsed < LATENCY, "the round does not wait for AWS S3, took " + elapsed + " ms");
+
+        // n.b. the member files are read in the background
+        server.setLatency(0, TimeUnit.MILLISECONDS);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!restarted.membershipRefreshes.isEmpty() && System.currentTimeMillis() < deadline) {
+            Util.sleep(10);
+        }
+        assertTrue(restarted.membershipRefreshes.isEmpty());
+    }
+
+    @Test
+    public void testIgnoresOldLocalSnapshot() throws Exception {
+        S3_PING ping = createProtocol();
+        connect(ping, CLUSTER);
+        S3_PINGTestSupport.putMember(server, ping, CLUSTER, "member");
+        ping.readAll(null, CLUSTER, new Responses(false));
+        String clusterPrefix = ping.getClusterPrefix(CLUSTER);
+        assertNotNull(ping.readLocalSnapshot(clusterPrefix));
+
+        Path path = ping.getLocalSnapshotPath(clusterPrefix);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() - ping.stale_membership_max_age * 2));
+
+        assertNull(ping.readLocalSnapshot(clusterPrefix), "a snapshot older than stale_membership_max_age is ignored");
+    }
+
+    @Test
+    public void testReplacesLocalSnapshot() throws Exception {
+        S3_PING ping = createProtocol();
+        JChannel channel = connect(ping, CLUSTER);
+        PingData first = S3_PINGTestSupport.putMember(server, ping, CLUSTER, "first");
+        ping.readAll(null, CLUSTER, new Responses(false));
+        PingData second = S3_PINGTestSupport.putMember(server, ping, CLUSTER, "second");
+        ping.readAll(null, CLUSTER, new Responses(false));
+
+        Path path = ping.getLocalSnapshotPath(ping.getClusterPrefix(CLUSTER));
+        List<PingData> persisted = ping.parse(new ByteArrayInputStream(Files.readAllBytes(path)));
+        assertNotNull(persisted);
+        assertTrue(addresses(persisted).contains(first.getAddress()));
+        assertTrue(addresses(persisted).contains(second.getAddress()), "the snapshot is replaced with the new membership");
+        assertFalse(addresses(persisted).contains(channel.getAddress()), "the local member is left out");
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            assertEquals(List.of(path), files.filter(file -> file.getFileName().toString().startsWith(path.getFileName().toString())).toList(),
+                    "no temporary file is left behind");
+        }
+    }
+
+    private S3_PING createProtocol() {
+        S3_PING ping = S3_PINGTestSupport.createProtocol(server);
+        ping.local_snapshot_dir = snapshotDir.toString();
+        return ping;
+    }
+
+    private JChannel connect(S3_PING ping, String cluster) throws Exception {
+        JChannel channel = S3_PINGTestSupport.connect(ping, cluster);
+        channels.add(channel);
+        return channel;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.PingData;
+import org.jgroups.protocols.aws.EmbeddedS3Server.Operation;
+import org.jgroups.stack.IpAddress;
+import org.jgroups.util.Responses;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests serving unchanged member files from the discovery cache against an {@link EmbeddedS3Server}.
+ */
+public class S3_PINGMemberFileCacheTestCase {
+
+    private static final String CLUSTER = "cache";
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testFetchesOnlyChangedMemberFiles() throws Exception {
+        S3_PING ping = S3_PINGTestSupport.createProtocol(server);
+        JChannel channel = connect(ping);
+        PingData member = S3_PINGTestSupport.putMember(server, ping, CLUSTER, "member");
+        ping.readAll(null, CLUSTER, new Responses(false));
+
+        server.resetCounts();
+        Responses responses = new Responses(false);
+        ping.readAll(null, CLUSTER, responses);
+        assertTrue(responses.containsResponseFrom(channel.getAddress()));
+        assertTrue(responses.containsResponseFrom(member.getAddress()));
+        assertEquals(0, server.getRequestCount(Operation.GET), "unchanged member files are served from the cache");
+
+        List<PingData> changed = new ArrayList<>(1);
+        changed.add(new PingData(member.getAddress(), true, member.getLogicalName(), new IpAddress("127.0.0.1", 7900)));
+        server.putObject(S3_PINGTestSupport.BUCKET, getMemberKey(ping, member), ping.serialize(changed));
+        server.resetCounts();
+        ping.readAll(null, CLUSTER, new Responses(false));
+        assertEquals(1, server.getRequestCount(Operation.GET), "only the changed member file is fetched");
+    }
+
+    @Test
+    public void testEvictsUnlistedMemberFiles() throws Exception {
+        S3_PING ping = S3_PINGTestSupport.createProtocol(server);
+        connect(ping);
+        PingData member = S3_PINGTestSupport.putMember(server, ping, CLUSTER, "member");
+        ping.readAll(null, CLUSTER, new Responses(false));
+        assertTrue(ping.discoveryCache.containsKey(getMemberKey(ping, member)));
+
+        server.deleteObject(S3_PINGTestSupport.BUCKET, getMemberKey(ping, member));
+        Responses responses = new Responses(false);
+        ping.readAll(null, CLUSTER, responses);
+
+        assertFalse(responses.containsResponseFrom(member.getAddress()));
+        assertFalse(ping.discoveryCache.containsKey(getMemberKey(ping, member)), "the removed member file is evicted");
+    }
+
+    private static String getMemberKey(S3_PING ping, PingData member) {
+        return ping.getMemberKey(ping.getClusterPrefix(CLUSTER), member.getAddress());
+    }
+
+    private JChannel connect(S3_PING ping) throws Exception {
+        JChannel channel = S3_PINGTestSupport.connect(ping, CLUSTER);
+        channels.add(channel);
+        return channel;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jgroups.Address;
+import org.jgroups.JChannel;
+import org.jgroups.protocols.PingData;
+import org.jgroups.stack.IpAddress;
+import org.jgroups.util.NameCache;
+import org.jgroups.util.Responses;
+import org.jgroups.util.UUID;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests skipping and removing the member files of crashed members against an {@link EmbeddedS3Server}.
+ */
+public class S3_PINGMemberFileTtlTestCase {
+
+    private static final String CLUSTER = "ttl";
+    // n.b. long enough for the member files of live members not to expire, and for the sweeper not to run by itself
+    private static final long MEMBER_FILE_TTL = 60_000;
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testSkipsAndRemovesExpiredMemberFiles() throws Exception {
+        S3_PING ping = createProtocol();
+        JChannel channel = connect(ping);
+        PingData crashed = createCrashedMember(ping, "crashed");
+        ping.resetStats();
+
+        Responses responses = new Responses(false);
+        ping.readAll(null, CLUSTER, responses);
+
+        assertFalse(responses.containsResponseFrom(crashed.getAddress()), "the expired member file is skipped");
+        assertTrue(responses.containsResponseFrom(channel.getAddress()));
+        assertEquals(1, ping.getExpiredMemberFilesSkipped());
+
+        ping.sweepExpiredMemberFiles();
+
+        // n.b. the expired member files are removed in the background
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (ping.getExpiredMemberFilesRemoved() == 0 && System.currentTimeMillis() < deadline) {
+            Util.sleep(10);
+        }
+        assertEquals(1, ping.getExpiredMemberFilesRemoved());
+        assertEquals(0, server.countObjects(S3_PINGTestSupport.BUCKET, getMemberKey(ping, crashed.getAddress())), "the coordinator removes the expired member file");
+        assertEquals(1, server.countObjects(S3_PINGTestSupport.BUCKET, getMemberKey(ping, channel.getAddress())), "the member file of a live member is kept");
+    }
+
+    @Test
+    public void testSkipsExpiredMemberFilesFetchedByKey() throws Exception {
+        S3_PING ping = createProtocol();
+        ping.targeted_fetch = true;
+        connect(ping);
+        PingData crashed = createCrashedMember(ping, "crashed-targeted");
+        ping.resetStats();
+
+        Responses responses = new Responses(false);
+        ping.readAll(List.of(crashed.getAddress()), CLUSTER, responses);
+
+        assertFalse(responses.containsResponseFrom(crashed.getAddress()), "the expired member file is skipped");
+        assertTrue(ping.getExpiredMemberFilesSkipped() >= 1);
+    }
+
+    /**
+     * Stores the member file of a member which stopped rewriting it well beyond the time to live.
+     */
+    private PingData createCrashedMember(S3_PING ping, String name) throws Exception {
+        PingData crashed = new PingData(UUID.randomUUID(), true, name, new IpAddress("127.0.0.1", 7800));
+        NameCache.add(crashed.getAddress(), name);
+        List<PingData> list = new ArrayList<>(1);
+        list.add(crashed);
+        server.putObject(S3_PINGTestSupport.BUCKET, getMemberKey(ping, crashed.getAddress()), ping.serialize(list),
+                Instant.now().minus(MEMBER_FILE_TTL * 2, ChronoUnit.MILLIS));
+        return crashed;
+    }
+
+    private static String getMemberKey(S3_PING ping, Address member) {
+        return ping.getMemberKey(ping.getClusterPrefix(CLUSTER), member);
+    }
+
+    private S3_PING createProtocol() {
+        S3_PING ping = S3_PINGTestSupport.createProtocol(server);
+        ping.member_file_ttl = MEMBER_FILE_TTL;
+        return ping;
+    }
+
+    private JChannel connect(S3_PING ping) throws Exception {
+        JChannel channel = S3_PINGTestSupport.connect(ping, CLUSTER);
+        channels.add(channel);
+        return channel;
+    }
+}
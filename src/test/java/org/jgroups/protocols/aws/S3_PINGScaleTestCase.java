@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.aws.EmbeddedS3Server.Operation;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Scale tests starting hundreds of channels in a single JVM against an embedded S3 endpoint, reporting the time until
+ * all channels have a complete view and the number of AWS S3 requests per joining member. As these take a while,
+ * they only run if enabled, e.g. by {@code ./mvnw test -Dtest=S3_PINGScaleTestCase -Djgroups.aws.scale_test=true}.
+ * The number of channels can be set by {@code -Djgroups.aws.scale_test.members=500}.
+ */
+@EnabledIfSystemProperty(named = "jgroups.aws.scale_test", matches = "true")
+public class S3_PINGScaleTestCase {
+
+    private static final int MEMBERS = Integer.getInteger("jgroups.aws.scale_test.members", 200);
+    private static final long VIEW_TIMEOUT = TimeUnit.MINUTES.toMillis(3);
+    private static final int SHARD_COUNT = 16;
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().setLatency(5, TimeUnit.MILLISECONDS).createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            // n.b. the state left in the embedded server is discarded, so all channels can be closed concurrently
+            for (JChannel channel : channels) {
+                executor.submit(() -> Util.close(channel));
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            channels.clear();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testJoin() throws Exception {
+        join("join", MEMBERS);
+    }
+
+    @Test
+    public void testJoinWithShards() throws Exception {
+        join("shards", MEMBERS, ping -> ping.shard_count = SHARD_COUNT);
+    }
+
+    @Test
+    public void testJoinWithJournal() throws Exception {
+        join("journal", MEMBERS, ping -> ping.journal = true);
+    }
+
+    @Test
+    public void testJoinWithShardsAndJournal() throws Exception {
+        join("shards-journal", MEMBERS, ping -> {
+            ping.shard_count = SHARD_COUNT;
+            ping.journal = true;
+        });
+    }
+
+    @Test
+    public void testJoinWithThrottling() throws Exception {
+        // n.b. well below the rate of a real prefix, so that the members are throttled while joining
+        server.setRequestRateLimit(200);
+
+        join("throttled", MEMBERS);
+
+        System.out.printf("Throttled %d requests%n", server.getThrottledCount());
+        assertTrue(server.getThrottledCount() > 0, "members are throttled while joining");
+    }
+
+    @Test
+    public void testJoinWithErrors() throws Exception {
+        server.injectErrors(Operation.LIST, 0.1, 500, "InternalError");
+        server.injectErrors(Operation.GET, 0.1, 500, "InternalError");
+        server.injectErrors(Operation.PUT, 0.1, 500, "InternalError");
+
+        join("errors", MEMBERS);
+    }
+
+    /**
+     * Starts the coordinator, then joins the other members concurrently and waits until all of them have a view of
+     * all members.
+     */
+    private void join(String name, int members) throws Exception {
+        join(name, members, ping -> {});
+    }
+
+    /**
+     * @param configuration customizes the protocol of each member
+     */
+    private void join(String name, int members, Consumer<S3_PING> configuration) throws Exception {
+        String cluster = name + "-" + UUID.randomUUID();
+        channels.add(connect(cluster, configuration));
+        server.resetCounts();
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<JChannel>> joins = new ArrayList<>(members - 1);
+            for (int i = 1; i < members; i++) {
+                joins.add(executor.submit(() -> connect(cluster, configuration)));
+            }
+            for (Future<JChannel> join : joins) {
+                channels.add(join.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long deadline = System.currentTimeMillis() + VIEW_TIMEOUT;
+        while (!hasCompleteViews(members) && System.currentTimeMillis() < deadline) {
+            Util.sleep(100);
+        }
+        long joinTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.printf("Cluster '%s': %d members joined in %d ms with %d requests (%.1f per join): %d list, %d get, %d put, %d delete%n",
+                name, members, joinTime, server.getRequestCount(), (double) server.getRequestCount() / (members - 1),
+                server.getRequestCount(Operation.LIST), server.getRequestCount(Operation.GET), server.getRequestCount(Operation.PUT),
+                server.getRequestCount(Operation.DELETE) + server.getRequestCount(Operation.DELETE_OBJECTS));
+
+        assertTrue(hasCompleteViews(members), "all members have a view of " + members + " members within " + VIEW_TIMEOUT + " ms");
+    }
+
+    private boolean hasCompleteViews(int members) {
+        return channels.size() == members && channels.stream().allMatch(channel -> channel.getView() != null && channel.getView().size() == members);
+    }
+
+    private JChannel connect(String cluster, Consumer<S3_PING> configuration) throws Exception {
+        S3_PING ping = S3_PINGTestSupport.createProtocol(server);
+        // n.b. hundreds of clients, each with its own connection pool, would rather test the HTTP client
+        ping.share_client = true;
+        configuration.accept(ping);
+
+        return S3_PINGTestSupport.connect(ping, cluster, 5_000);
+    }
+}
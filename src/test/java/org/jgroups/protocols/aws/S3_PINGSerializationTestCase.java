@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jgroups.protocols.PingData;
+import org.jgroups.stack.IpAddress;
+import org.jgroups.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the text and binary member file formats of S3_PING.
+ */
+public class S3_PINGSerializationTestCase {
+
+    @Test
+    public void testTextFormat() throws Exception {
+        S3_PING ping = new S3_PING();
+        List<PingData> list = createMembers(3);
+
+        byte[] data = ping.serialize(list);
+
+        assertEquals('A', data[0], "text format starts with the logical name");
+        assertMembers(list, ping.parse(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    public void testBinaryFormat() throws Exception {
+        S3_PING ping = new S3_PING();
+        ping.binary_format = true;
+        List<PingData> list = createMembers(3);
+
+        byte[] data = ping.serialize(list);
+
+        assertEquals(0, data[0], "binary format starts with the magic number");
+        assertEquals(S3_PING.BINARY_FORMAT_HEADER_SIZE + Integer.BYTES + list.stream().mapToInt(PingData::serializedSize).sum(), data.length,
+                "the buffer is sized exactly");
+        assertMembers(list, ping.parse(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    public void testCompressedBinaryFormat() throws Exception {
+        S3_PING ping = new S3_PING();
+        ping.binary_format = true;
+        ping.compress = true;
+        List<PingData> list = createMembers(100);
+
+        byte[] compressed = ping.serialize(list);
+        ping.compress = false;
+        byte[] uncompressed = ping.serialize(list);
+
+        assertTrue(compressed.length < uncompressed.length, "compressed data is smaller");
+        assertMembers(list, ping.parse(new ByteArrayInputStream(compressed)));
+    }
+
+    @Test
+    public void testReadsTextFormatWhenWritingBinaryFormat() throws Exception {
+        S3_PING legacy = new S3_PING();
+        S3_PING ping = new S3_PING();
+        ping.binary_format = true;
+        List<PingData> list = createMembers(3);
+
+        assertMembers(list, ping.parse(new ByteArrayInputStream(legacy.serialize(list))));
+    }
+
+    @Test
+    public void testParsesSplitBuffers() throws Exception {
+        S3_PING ping = new S3_PING();
+        ping.binary_format = true;
+        ping.compress = true;
+        List<PingData> list = createMembers(10);
+        byte[] data = ping.serialize(list);
+
+        // n.b. split within the header to exercise the pushback of the text format detection
+        List<ByteBuffer> buffers = List.of(ByteBuffer.wrap(data, 0, 2), ByteBuffer.allocate(0), ByteBuffer.wrap(data, 2, data.length - 2));
+
+        assertMembers(list, ping.parse(new S3_PING.ByteBuffersInputStream(buffers)));
+    }
+
+    @Test
+    public void testIndependentOfPreviousWrites() throws Exception {
+        S3_PING ping = new S3_PING();
+        ping.binary_format = true;
+        ping.compress = true;
+        List<PingData> list = createMembers(3);
+
+        byte[] first = ping.serialize(list);
+        ping.serialize(createMembers(50));
+        byte[] second = ping.serialize(list);
+
+        assertArrayEquals(first, second, "serialization is independent of previous writes");
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        S3_PING ping = new S3_PING();
+        assertNull(ping.parse(new ByteArrayInputStream(new byte[0])));
+
+        ping.binary_format = true;
+        assertNull(ping.parse(new ByteArrayInputStream(ping.serialize(new ArrayList<>()))));
+    }
+
+    @Test
+    public void testRejectsInvalidEntryCount() throws Exception {
+        S3_PING ping = new S3_PING();
+        ping.binary_format = true;
+        byte[] data = ping.serialize(createMembers(1));
+
+        // n.b. the count follows the header
+        ByteBuffer.wrap(data).putInt(S3_PING.BINARY_FORMAT_HEADER_SIZE, -1);
+        assertNull(ping.parse(new ByteArrayInputStream(data)));
+
+        ByteBuffer.wrap(data).putInt(S3_PING.BINARY_FORMAT_HEADER_SIZE, Integer.MAX_VALUE);
+        assertNull(ping.parse(new ByteArrayInputStream(data)));
+    }
+
+    private static List<PingData> createMembers(int count) throws Exception {
+        List<PingData> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(new PingData(UUID.randomUUID(), true, "A" + i, new IpAddress("127.0.0.1", 7800 + i)).coord(i == 0));
+        }
+        return list;
+    }
+
+    private static void assertMembers(List<PingData> expected, List<PingData> actual) {
+        assertNotNull(actual);
+        assertEquals(expected.size(), actual.size(), "member count");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getAddress(), actual.get(i).getAddress(), "address");
+            assertEquals(expected.get(i).getLogicalName(), actual.get(i).getLogicalName(), "logical name");
+            assertEquals(expected.get(i).getPhysicalAddr(), actual.get(i).getPhysicalAddr(), "physical address");
+            assertEquals(expected.get(i).isCoord(), actual.get(i).isCoord(), "coordinator");
+        }
+    }
+}
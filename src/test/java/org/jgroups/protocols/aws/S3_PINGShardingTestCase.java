@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.aws.EmbeddedS3Server.Operation;
+import org.jgroups.util.Responses;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests discovering the member files spread over shards against an {@link EmbeddedS3Server}.
+ */
+public class S3_PINGShardingTestCase {
+
+    private static final String CLUSTER = "sharding";
+    private static final int SHARD_COUNT = 64;
+    private static final int MEMBERS = 3;
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testListsOnlyNonEmptyShards() throws Exception {
+        List<S3_PING> pings = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            S3_PING ping = S3_PINGTestSupport.createProtocol(server);
+            ping.shard_count = SHARD_COUNT;
+            pings.add(ping);
+            channels.add(S3_PINGTestSupport.connect(ping, CLUSTER));
+        }
+        server.resetCounts();
+
+        Responses responses = new Responses(false);
+        pings.get(0).readAll(null, CLUSTER, responses);
+
+        assertEquals(MEMBERS, responses.size());
+        // n.b. the flat listing plus one listing per shard holding a member file
+        assertTrue(server.getRequestCount(Operation.LIST) <= 1 + MEMBERS, "listed " + server.getRequestCount(Operation.LIST) + " prefixes");
+    }
+
+    @Test
+    public void testDiscoversMembersInFlatLayout() throws Exception {
+        S3_PING sharded = S3_PINGTestSupport.createProtocol(server);
+        sharded.shard_count = SHARD_COUNT;
+        channels.add(S3_PINGTestSupport.connect(sharded, CLUSTER));
+        JChannel flat = S3_PINGTestSupport.connect(S3_PINGTestSupport.createProtocol(server), CLUSTER);
+        channels.add(flat);
+
+        Responses responses = new Responses(false);
+        sharded.readAll(null, CLUSTER, responses);
+
+        assertEquals(2, responses.size());
+        assertTrue(responses.containsResponseFrom(flat.getAddress()));
+    }
+}
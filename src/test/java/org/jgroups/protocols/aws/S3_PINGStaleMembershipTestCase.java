@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import static org.jgroups.protocols.aws.S3_PINGTestSupport.addresses;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jgroups.JChannel;
+import org.jgroups.protocols.PingData;
+import org.jgroups.protocols.aws.EmbeddedS3Server.Operation;
+import org.jgroups.stack.IpAddress;
+import org.jgroups.util.NameCache;
+import org.jgroups.util.Responses;
+import org.jgroups.util.UUID;
+import org.jgroups.util.Util;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests serving the last known membership when a discovery round fails or exceeds its latency budget against an
+ * {@link EmbeddedS3Server}.
+ */
+public class S3_PINGStaleMembershipTestCase {
+
+    private static final String CLUSTER = "stale";
+    private static final long LATENCY_BUDGET = 100;
+    private static final long LATENCY = 2_000;
+
+    private EmbeddedS3Server server;
+    private final List<JChannel> channels = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpCredentials() {
+        S3_PINGTestSupport.setUpCredentials();
+    }
+
+    @AfterAll
+    public static void restoreCredentials() {
+        S3_PINGTestSupport.restoreCredentials();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = EmbeddedS3Server.start().createBucket(S3_PINGTestSupport.BUCKET);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        server.setLatency(0, TimeUnit.MILLISECONDS);
+        channels.forEach(Util::close);
+        channels.clear();
+        server.close();
+    }
+
+    @Test
+    public void testFailedRoundServesKnownMembership() throws Exception {
+        S3_PING ping = createProtocol();
+        // n.b. fail the round on the first error instead of retrying it
+        ping.max_attempts = 1;
+        JChannel channel = connect(ping);
+        ping.readAll(null, CLUSTER, new Responses(false));
+
+        server.injectErrors(Operation.LIST, 1.0, 500, "InternalError");
+        server.resetCounts();
+        Responses responses = new Responses(false);
+        ping.readAll(null, CLUSTER, responses);
+
+        assertTrue(server.getRequestCount(Operation.LIST) > 0, "the round is attempted");
+        assertTrue(responses.containsResponseFrom(channel.getAddress()), "the last known membership is served");
+    }
+
+    @Test
+    public void testSlowRoundReturnsAtLatencyBudget() throws Exception {
+        S3_PING ping = createProtocol();
+        ping.discovery_latency_budget = LATENCY_BUDGET;
+        JChannel channel = connect(ping);
+        ping.readAll(null, CLUSTER, new Responses(false));
+        PingData joined = createMember(ping, "joined");
+
+        server.setLatency(LATENCY, TimeUnit.MILLISECONDS);
+        Responses responses = new Responses(false);
+        long start = System.nanoTime();
+        ping.readAll(null, CLUSTER, responses);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsed < LATENCY, "the round returns at its budget rather than waiting for AWS S3, took " + elapsed + " ms");
+        assertTrue(responses.containsResponseFrom(channel.getAddress()), "the last known membership is served");
+
+        // n.b. the round continues in the background and updates the known membership, but not the returned responses
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!ping.membershipRefreshes.isEmpty() && System.currentTimeMillis() < deadline) {
+            Util.sleep(10);
+        }
+        assertTrue(ping.membershipRefreshes.isEmpty());
+        assertFalse(responses.containsResponseFrom(joined.getAddress()), "a round in the background does not add to returned responses");
+        assertTrue(addresses(ping.getKnownMembership(ping.getClusterPrefix(CLUSTER)).members()).contains(joined.getAddress()));
+    }
+
+    /**
+     * Stores the member file of a member which joined after the last known membership was discovered.
+     */
+    private PingData createMember(S3_PING ping, String name) throws Exception {
+        PingData member = new PingData(UUID.randomUUID(), true, name, new IpAddress("127.0.0.1", 7800));
+        NameCache.add(member.getAddress(), name);
+        List<PingData> list = new ArrayList<>(1);
+        list.add(member);
+        server.putObject(S3_PINGTestSupport.BUCKET, ping.getMemberKey(ping.getClusterPrefix(CLUSTER), member.getAddress()), ping.serialize(list));
+        return member;
+    }
+
+    private S3_PING createProtocol() {
+        S3_PING ping = S3_PINGTestSupport.createProtocol(server);
+        ping.serve_stale_membership = true;
+        return ping;
+    }
+
+    private JChannel connect(S3_PING ping) throws Exception {
+        JChannel channel = S3_PINGTestSupport.connect(ping, CLUSTER);
+        channels.add(channel);
+        return channel;
+    }
+}
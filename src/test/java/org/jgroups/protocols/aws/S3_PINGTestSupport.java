@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Red Hat Inc., and individual contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jgroups.protocols.aws;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.jgroups.Address;
+import org.jgroups.JChannel;
+import org.jgroups.protocols.PingData;
+import org.jgroups.protocols.SHARED_LOOPBACK;
+import org.jgroups.protocols.UNICAST3;
+import org.jgroups.protocols.pbcast.GMS;
+import org.jgroups.protocols.pbcast.NAKACK2;
+import org.jgroups.protocols.pbcast.STABLE;
+import org.jgroups.stack.IpAddress;
+import org.jgroups.util.NameCache;
+import org.jgroups.util.UUID;
+
+/**
+ * Creates the protocol instances and channels shared by the tests running against an {@link EmbeddedS3Server}.
+ */
+final class S3_PINGTestSupport {
+    static final String BUCKET = "ping-test-bucket";
+
+    // n.b. the embedded server ignores request signatures, but the default credentials provider chain needs some
+    private static final String[] CREDENTIAL_PROPERTIES = { "aws.accessKeyId", "aws.secretAccessKey" };
+    private static final String[] previousCredentials = new String[CREDENTIAL_PROPERTIES.length];
+
+    private S3_PINGTestSupport() {
+    }
+
+    static void setUpCredentials() {
+        for (int i = 0; i < CREDENTIAL_PROPERTIES.length; i++) {
+            previousCredentials[i] = System.setProperty(CREDENTIAL_PROPERTIES[i], "test");
+        }
+    }
+
+    static void restoreCredentials() {
+        for (int i = 0; i < CREDENTIAL_PROPERTIES.length; i++) {
+            if (previousCredentials[i] == null) {
+                System.clearProperty(CREDENTIAL_PROPERTIES[i]);
+            } else {
+                System.setProperty(CREDENTIAL_PROPERTIES[i], previousCredentials[i]);
+            }
+        }
+    }
+
+    /**
+     * @return a protocol configured against the given embedded server, to be further customized by the test
+     */
+    static S3_PING createProtocol(EmbeddedS3Server server) {
+        return configure(new S3_PING(), server);
+    }
+
+    /**
+     * Configures the given protocol, e.g. a subclass exposing some state to a test, against the given embedded server.
+     */
+    static <P extends S3_PING> P configure(P ping, EmbeddedS3Server server) {
+        ping.endpoint = server.getEndpoint().toString();
+        ping.region_name = "us-east-1";
+        ping.bucket_name = BUCKET;
+        ping.path_style_access_enabled = true;
+        ping.check_if_bucket_exists = false;
+        return ping;
+    }
+
+    /**
+     * Connects a channel with a minimal in-JVM stack on top of the given protocol, so that it is initialized and
+     * started exactly as in a real stack.
+     */
+    static JChannel connect(S3_PING ping, String cluster) throws Exception {
+        return connect(ping, cluster, 1_000);
+    }
+
+    /**
+     * @param joinTimeout the join timeout of GMS in milliseconds, e.g. longer for many members joining concurrently
+     */
+    static JChannel connect(S3_PING ping, String cluster, long joinTimeout) throws Exception {
+        JChannel channel = new JChannel(new SHARED_LOOPBACK(), ping, new NAKACK2(), new UNICAST3(), new STABLE(), new GMS().setJoinTimeout(joinTimeout));
+        channel.connect(cluster);
+        return channel;
+    }
+
+    /**
+     * Stores the member file of a member which is not running, e.g. to populate a cluster without connecting channels.
+     */
+    static PingData putMember(EmbeddedS3Server server, S3_PING ping, String cluster, String name) throws Exception {
+        PingData member = new PingData(UUID.randomUUID(), true, name, new IpAddress("127.0.0.1", 7800));
+        NameCache.add(member.getAddress(), name);
+        List<PingData> list = new ArrayList<>(1);
+        list.add(member);
+        server.putObject(BUCKET, ping.getMemberKey(ping.getClusterPrefix(cluster), member.getAddress()), ping.serialize(list));
+        return member;
+    }
+
+    static List<Address> addresses(List<PingData> membership) {
+        return membership.stream().map(PingData::getAddress).collect(Collectors.toList());
+    }
+}